@@ -112,10 +112,13 @@ export type AdminFeeIncomeItem = {
   usdCents: number
   sourceUserId: number | null
   sourceEmail: string | null
+  pending: boolean
 }
 
 export type AdminFeeIncomeResponse = {
   totalUsdCents: number
+  settledUsdCents: number
+  pendingUsdCents: number
   items: AdminFeeIncomeItem[]
 }
 
@@ -0,0 +1,129 @@
+package trenvus.Exchange.market;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import trenvus.Exchange.market.MarketDataService.MarketTicker;
+
+/**
+ * Per-request and per-update work that does not touch the network: numeric field decoding on mixed
+ * inputs, merging and serializing the crypto and fiat ticker lists, and incremental book updates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MarketHotPathBenchmark {
+	/** Shapes seen in OKX and Coinext fields: plain decimals, integers, exponents, blanks, garbage. */
+	private static final String[] MIXED = {
+			"43250.1", "0.00012345", "7", "1.2345678e-05", "", "64000.50000000", "NaN", "12,5", "0.0070", "123456789.123456"
+	};
+
+	private char[][] mixed;
+	private ObjectMapper mapper;
+	private List<MarketTicker> crypto;
+	private List<MarketTicker> fiat;
+	private L2Book book;
+	private double[] updatePrices;
+	private double[] updateSizes;
+	private int updateIndex;
+
+	@Setup
+	public void setUp() {
+		mixed = new char[MIXED.length][];
+		for (int i = 0; i < MIXED.length; i++) {
+			mixed[i] = MIXED[i].toCharArray();
+		}
+		mapper = new ObjectMapper();
+		crypto = new ArrayList<>();
+		for (var instId : List.of("BTC-USDT", "ETH-USDT", "XRP-USDT", "SOL-USDT", "ADA-USDT", "USDT-BRL")) {
+			var parts = instId.split("-");
+			crypto.add(new MarketTicker(instId, parts[0], parts[1], 100.5, 100.4, 100.6, 1.25, 101.0, 99.0, 12345.0, 1234567.0, "1704412800000"));
+		}
+		fiat = new ArrayList<>();
+		for (var pair : List.of("USD-EUR", "USD-GBP", "USD-JPY", "USD-CNY", "USD-CHF")) {
+			var parts = pair.split("-");
+			fiat.add(new MarketTicker(pair, parts[0], parts[1], 0.92, 0.9195, 0.9205, null, null, null, null, null, "1704412800000"));
+		}
+		book = new L2Book("BTC-USDT");
+		var random = new SplittableRandom(42);
+		for (int i = 0; i < 400; i++) {
+			book.set(true, Math.round(432500 - i) / 10.0, random.nextDouble(0.001, 3));
+			book.set(false, Math.round(432501 + i) / 10.0, random.nextDouble(0.001, 3));
+		}
+		book.commit("0", 0);
+		updatePrices = new double[1024];
+		updateSizes = new double[1024];
+		for (int i = 0; i < updatePrices.length; i++) {
+			updatePrices[i] = Math.round((43250.0 - random.nextInt(400) * 0.1) * 10) / 10.0;
+			updateSizes[i] = random.nextInt(4) == 0 ? 0 : random.nextDouble(0.001, 3);
+		}
+	}
+
+	/** The allocation-free decimal path with the {@code Double.parseDouble} fallback the parsers use. */
+	@Benchmark
+	public void decodeMixedNumbers(Blackhole bh) {
+		for (var text : mixed) {
+			long decimal = L2Book.parseDecimal(text, 0, text.length);
+			if (decimal != L2Book.NO_TEXT) {
+				bh.consume(L2Book.toDouble(decimal));
+				continue;
+			}
+			try {
+				bh.consume(Double.parseDouble(new String(text)));
+			} catch (NumberFormatException e) {
+				bh.consume(Double.NaN);
+			}
+		}
+	}
+
+	/** Baseline: what decoding cost when every field went through {@code Double.parseDouble}. */
+	@Benchmark
+	public void decodeMixedNumbersBaseline(Blackhole bh) {
+		for (var text : MIXED) {
+			try {
+				bh.consume(Double.parseDouble(text));
+			} catch (NumberFormatException e) {
+				bh.consume(Double.NaN);
+			}
+		}
+	}
+
+	/** Merge of both snapshots into the {@code /market/tickers} body, as done once per snapshot change. */
+	@Benchmark
+	public Object mergeAndSerializeTickers() throws Exception {
+		var all = new ArrayList<MarketTicker>(crypto.size() + fiat.size());
+		all.addAll(crypto);
+		all.addAll(fiat);
+		return JsonPayload.of(mapper.writeValueAsBytes(all));
+	}
+
+	@Benchmark
+	public long bookIncrementalUpdate() {
+		int i = updateIndex++ & (updatePrices.length - 1);
+		book.set(true, updatePrices[i], updateSizes[i]);
+		book.commit("1", i);
+		return book.version();
+	}
+
+	@Benchmark
+	public Object bookTopView() {
+		book.commit("1", 1);
+		return book.top(50);
+	}
+}
@@ -0,0 +1,99 @@
+package trenvus.Exchange.market;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import trenvus.Exchange.market.MarketDataService.OrderBook;
+
+/**
+ * Upstream payload parsing on the fixtures under {@code src/jmh/resources/fixtures}: an OKX 400-level
+ * book, 300 OKX candles, the full OKX SPOT ticker list and a Coinext 50-level L2 snapshot turned into
+ * the served {@code OrderBook}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MarketParsersBenchmark {
+	private byte[] okxBooks;
+	private byte[] okxCandles;
+	private byte[] okxTickers;
+	private byte[] coinextL2;
+	private Set<String> universe;
+
+	@Setup
+	public void load() {
+		okxBooks = Fixtures.read("okx-books.json");
+		okxCandles = Fixtures.read("okx-candles.json");
+		okxTickers = Fixtures.read("okx-tickers.json");
+		coinextL2 = Fixtures.read("coinext-l2.json");
+		universe = Set.of("BTC-USDC", "ETH-USDT", "XRP-USDT", "SOL-USDC", "ADA-USDT");
+	}
+
+	@Benchmark
+	public OrderBook okxBookLevels() throws IOException {
+		return MarketJsonParsers.parseOkxBook(new ByteArrayInputStream(okxBooks), "BTC-USDT");
+	}
+
+	@Benchmark
+	public Object okxCandles() throws IOException {
+		return MarketJsonParsers.parseOkxCandles(new ByteArrayInputStream(okxCandles));
+	}
+
+	/** The batch ticker call: 700 rows of mixed numeric strings, five kept. */
+	@Benchmark
+	public Object okxTickersFiltered() throws IOException {
+		return MarketJsonParsers.parseOkxTickers(new ByteArrayInputStream(okxTickers), universe);
+	}
+
+	/** Same as {@code MarketDataService.fetchCoinextOrderBook} minus the HTTP call. */
+	@Benchmark
+	public OrderBook coinextSnapshotToOrderBook() throws IOException {
+		var book = new L2Book("USDT-BRL");
+		MarketJsonParsers.CoinextL2Row sink = (actionTime, lastTradePrice, price, quantity, side) -> {
+			if (Double.isNaN(price) || Double.isNaN(quantity) || (side != 0 && side != 1)) return;
+			book.set(side == 0, price, quantity);
+		};
+		MarketJsonParsers.parseCoinextL2(new ByteArrayInputStream(coinextL2), sink);
+		book.commit("0", 0);
+		return book.top(10);
+	}
+
+	@Benchmark
+	public void coinextRowsOnly(Blackhole bh) throws IOException {
+		MarketJsonParsers.parseCoinextL2(new ByteArrayInputStream(coinextL2), (actionTime, lastTradePrice, price, quantity, side) -> {
+			bh.consume(price);
+			bh.consume(quantity);
+		});
+	}
+
+	static final class Fixtures {
+		private Fixtures() {}
+
+		static byte[] read(String name) {
+			try (var in = MarketParsersBenchmark.class.getResourceAsStream("/fixtures/" + name)) {
+				if (in == null) {
+					throw new IllegalStateException("Missing benchmark fixture " + name);
+				}
+				return in.readAllBytes();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+	}
+}
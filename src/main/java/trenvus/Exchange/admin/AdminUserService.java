@@ -8,7 +8,11 @@ import java.util.Map;
 import java.util.Objects;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import trenvus.Exchange.exchange.FeeAccrualEntity;
+import trenvus.Exchange.exchange.FeeTreasury;
+import trenvus.Exchange.exchange.FeeTreasuryResolver;
 import trenvus.Exchange.tx.TransactionEntity;
 import trenvus.Exchange.tx.TransactionRepository;
 import trenvus.Exchange.tx.TransactionType;
@@ -16,21 +20,28 @@ import trenvus.Exchange.user.UserEntity;
 import trenvus.Exchange.user.UserRepository;
 import trenvus.Exchange.user.UserRole;
 import trenvus.Exchange.wallet.Currency;
-import trenvus.Exchange.wallet.WalletRepository;
 import trenvus.Exchange.wallet.WalletService;
 
 @Service
 public class AdminUserService {
 	private final UserRepository users;
-	private final WalletRepository wallets;
 	private final WalletService walletService;
 	private final TransactionRepository transactions;
-
-	public AdminUserService(UserRepository users, WalletRepository wallets, WalletService walletService, TransactionRepository transactions) {
+	private final FeeTreasuryResolver feeTreasury;
+	private final FeeTreasury feeIncome;
+
+	public AdminUserService(
+			UserRepository users,
+			WalletService walletService,
+			TransactionRepository transactions,
+			FeeTreasuryResolver feeTreasury,
+			FeeTreasury feeIncome
+	) {
 		this.users = users;
-		this.wallets = wallets;
 		this.walletService = walletService;
 		this.transactions = transactions;
+		this.feeTreasury = feeTreasury;
+		this.feeIncome = feeIncome;
 	}
 
 	@Transactional(readOnly = true)
@@ -53,33 +64,49 @@ public class AdminUserService {
 
 	@Transactional(readOnly = true)
 	public WalletService.WalletSnapshot getUserWallet(Long userId) {
-		return walletService.getSnapshot(userId);
+		return feeIncome.withPendingFees(userId, walletService.getSnapshot(userId));
 	}
 
-	@Transactional(readOnly = true)
+	/**
+	 * Settled fee income (FEE_INCOME_USD lines) plus accruals not settled yet. Both are read from one
+	 * snapshot, so an accrual being settled concurrently is counted exactly once.
+	 */
+	@Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
 	public FeeIncomeResponse getUserFeeIncome(Long userId, int size) {
 		int pageSize = Math.max(1, Math.min(size, 100));
-		long totalUsdCents = transactions.sumUsdAmountCentsByUserIdAndType(userId, TransactionType.FEE_INCOME_USD);
-		var page = transactions.findByUserIdAndTypeOrderByIdDesc(userId, TransactionType.FEE_INCOME_USD, PageRequest.of(0, pageSize));
-
-		var sourceIds = page.getContent().stream()
-				.map(TransactionEntity::getSourceUserId)
+		long settledUsdCents = transactions.sumUsdAmountCentsByUserIdAndType(userId, TransactionType.FEE_INCOME_USD);
+		long pendingUsdCents = feeIncome.pendingUsdCents(userId);
+		var pending = feeIncome.pendingAccruals(userId, pageSize);
+		var page = pending.size() >= pageSize
+				? List.<TransactionEntity>of()
+				: transactions.findByUserIdAndTypeOrderByIdDesc(userId, TransactionType.FEE_INCOME_USD, PageRequest.of(0, pageSize - pending.size())).getContent();
+
+		var sourceIds = java.util.stream.Stream.concat(
+						pending.stream().map(FeeAccrualEntity::getSourceUserId),
+						page.stream().map(TransactionEntity::getSourceUserId))
 				.filter(Objects::nonNull)
 				.distinct()
 				.toList();
 		Map<Long, String> sourceEmails = users.findAllById(sourceIds).stream()
 				.collect(java.util.stream.Collectors.toMap(UserEntity::getId, u -> u.getEmail() == null ? "" : u.getEmail()));
 
-		var items = page.getContent().stream().map(tx -> {
+		var items = new java.util.ArrayList<FeeIncomeItem>(pending.size() + page.size());
+		for (var accrual : pending) {
+			Long srcId = accrual.getSourceUserId();
+			String srcEmail = srcId == null ? null : sourceEmails.getOrDefault(srcId, null);
+			String tec = "ACR-" + String.format("%010d", accrual.getId());
+			items.add(new FeeIncomeItem(accrual.getId(), tec, accrual.getCreatedAt(), accrual.getUsdCents(), srcId, srcEmail, true));
+		}
+		for (var tx : page) {
 			Long id = tx.getId();
 			String tec = id == null ? "TEC-UNKNOWN" : "TEC-" + String.format("%010d", id);
 			long usd = tx.getUsdAmountCents() == null ? 0 : tx.getUsdAmountCents();
 			Long srcId = tx.getSourceUserId();
 			String srcEmail = srcId == null ? null : sourceEmails.getOrDefault(srcId, null);
-			return new FeeIncomeItem(id, tec, tx.getCreatedAt(), usd, srcId, srcEmail);
-		}).toList();
+			items.add(new FeeIncomeItem(id, tec, tx.getCreatedAt(), usd, srcId, srcEmail, false));
+		}
 
-		return new FeeIncomeResponse(totalUsdCents, items);
+		return new FeeIncomeResponse(Math.addExact(settledUsdCents, pendingUsdCents), settledUsdCents, pendingUsdCents, items);
 	}
 
 	@Transactional
@@ -87,11 +114,9 @@ public class AdminUserService {
 		long usdCents = parseCentsAllowZero(usd);
 		long trvCents = parseCentsAllowZero(trv);
 
-		walletService.ensureUserWallets(userId);
-		var locked = wallets.findForUpdate(userId, List.of(Currency.USD, Currency.TRV));
-
-		var usdWallet = locked.stream().filter(w -> w.getCurrency() == Currency.USD).findFirst().orElseThrow();
-		var trvWallet = locked.stream().filter(w -> w.getCurrency() == Currency.TRV).findFirst().orElseThrow();
+		var locked = walletService.lock(userId, List.of(Currency.USD, Currency.TRV));
+		var usdWallet = locked.get(Currency.USD);
+		var trvWallet = locked.get(Currency.TRV);
 
 		long deltaUsd = Math.subtractExact(usdCents, usdWallet.getBalanceCents());
 		long deltaTrv = Math.subtractExact(trvCents, trvWallet.getBalanceCents());
@@ -109,7 +134,7 @@ public class AdminUserService {
 		}
 		transactions.save(tx);
 
-		return walletService.getSnapshot(userId);
+		return WalletService.WalletSnapshot.of(usdWallet, trvWallet);
 	}
 
 	@Transactional
@@ -117,6 +142,7 @@ public class AdminUserService {
 		var user = users.findById(userId).orElseThrow(() -> new IllegalArgumentException("User not found"));
 		user.setRole(role == null ? UserRole.USER : role);
 		user = users.save(user);
+		feeTreasury.invalidateAfterCommit();
 		return new UserSummary(user.getId(), user.getEmail(), user.getRole());
 	}
 
@@ -140,7 +166,7 @@ public class AdminUserService {
 
 	public record UserSummary(Long id, String email, UserRole role) {}
 
-	public record FeeIncomeItem(Long id, String tec, java.time.Instant createdAt, long usdCents, Long sourceUserId, String sourceEmail) {}
+	public record FeeIncomeItem(Long id, String tec, java.time.Instant createdAt, long usdCents, Long sourceUserId, String sourceEmail, boolean pending) {}
 
-	public record FeeIncomeResponse(long totalUsdCents, List<FeeIncomeItem> items) {}
+	public record FeeIncomeResponse(long totalUsdCents, long settledUsdCents, long pendingUsdCents, List<FeeIncomeItem> items) {}
 }
@@ -7,6 +7,7 @@ import org.springframework.boot.ApplicationRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import trenvus.Exchange.exchange.FeeTreasuryResolver;
 import trenvus.Exchange.user.UserEntity;
 import trenvus.Exchange.user.UserRepository;
 import trenvus.Exchange.user.UserRole;
@@ -20,17 +21,20 @@ public class AdminAccountBootstrap implements ApplicationRunner {
 	private final PasswordEncoder passwordEncoder;
 	private final WalletService walletService;
 	private final AdminAccountConfig adminAccount;
+	private final FeeTreasuryResolver feeTreasury;
 
 	public AdminAccountBootstrap(
 			UserRepository users,
 			PasswordEncoder passwordEncoder,
 			WalletService walletService,
-			AdminAccountConfig adminAccount
+			AdminAccountConfig adminAccount,
+			FeeTreasuryResolver feeTreasury
 	) {
 		this.users = users;
 		this.passwordEncoder = passwordEncoder;
 		this.walletService = walletService;
 		this.adminAccount = adminAccount;
+		this.feeTreasury = feeTreasury;
 	}
 
 	@Override
@@ -71,6 +75,7 @@ public class AdminAccountBootstrap implements ApplicationRunner {
 		var encodedPassword = passwordEncoder.encode(adminAccount.password());
 		user.setPasswordHash(encodedPassword);
 		user = users.save(user);
+		feeTreasury.invalidateAfterCommit();
 		
 		logger.info("Admin user SAVED (id: {}, has password: {})", user.getId(), user.getPasswordHash() != null);
 		
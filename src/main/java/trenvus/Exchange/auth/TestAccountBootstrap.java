@@ -8,6 +8,7 @@ import org.springframework.core.annotation.Order;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import trenvus.Exchange.exchange.FeeTreasuryResolver;
 import trenvus.Exchange.user.UserEntity;
 import trenvus.Exchange.user.UserRepository;
 import trenvus.Exchange.wallet.WalletService;
@@ -21,17 +22,20 @@ public class TestAccountBootstrap implements ApplicationRunner {
 	private final PasswordEncoder passwordEncoder;
 	private final WalletService walletService;
 	private final TestAccountsConfig testAccounts;
+	private final FeeTreasuryResolver feeTreasury;
 
 	public TestAccountBootstrap(
 			UserRepository users,
 			PasswordEncoder passwordEncoder,
 			WalletService walletService,
-			TestAccountsConfig testAccounts
+			TestAccountsConfig testAccounts,
+			FeeTreasuryResolver feeTreasury
 	) {
 		this.users = users;
 		this.passwordEncoder = passwordEncoder;
 		this.walletService = walletService;
 		this.testAccounts = testAccounts;
+		this.feeTreasury = feeTreasury;
 		
 		// Test password encoder
 		var testEncoded = passwordEncoder.encode("test");
@@ -110,6 +114,8 @@ public class TestAccountBootstrap implements ApplicationRunner {
 				logger.error("  -> FAILED to process {}: {}", account.email(), e.getMessage(), e);
 			}
 		}
+		// Accounts may have been given the ADMIN role above
+		feeTreasury.invalidateAfterCommit();
 		
 		logger.info("========================================");
 		logger.info("TestAccountBootstrap COMPLETED");
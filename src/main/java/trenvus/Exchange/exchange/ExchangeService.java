@@ -1,17 +1,12 @@
 package trenvus.Exchange.exchange;
 
-import java.util.EnumMap;
-import java.util.List;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import trenvus.Exchange.tx.TransactionEntity;
 import trenvus.Exchange.tx.TransactionRepository;
 import trenvus.Exchange.tx.TransactionType;
-import trenvus.Exchange.user.UserRepository;
-import trenvus.Exchange.user.UserRole;
 import trenvus.Exchange.wallet.Currency;
-import trenvus.Exchange.wallet.WalletRepository;
 import trenvus.Exchange.wallet.WalletService;
 
 @Service
@@ -19,16 +14,14 @@ public class ExchangeService {
 	public static final int CONVERSION_FEE_PERCENT = 1;
 	public static final long MIN_DEPOSIT_USD_CENTS = 1_000;
 
-	private final WalletRepository wallets;
 	private final WalletService walletService;
 	private final TransactionRepository transactions;
-	private final UserRepository users;
+	private final FeeTreasury feeTreasury;
 
-	public ExchangeService(WalletRepository wallets, WalletService walletService, TransactionRepository transactions, UserRepository users) {
-		this.wallets = wallets;
+	public ExchangeService(WalletService walletService, TransactionRepository transactions, FeeTreasury feeTreasury) {
 		this.walletService = walletService;
 		this.transactions = transactions;
-		this.users = users;
+		this.feeTreasury = feeTreasury;
 	}
 
 	@Transactional
@@ -36,12 +29,7 @@ public class ExchangeService {
 		if (amountUsdCents < MIN_DEPOSIT_USD_CENTS) {
 			throw new IllegalArgumentException("deposit_minimum_usd_10");
 		}
-		walletService.ensureUserWallets(userId);
-
-		var locked = wallets.findForUpdate(userId, List.of(Currency.USD));
-		var usdWallet = locked.stream().filter(w -> w.getCurrency() == Currency.USD).findFirst().orElseThrow();
-
-		usdWallet.setBalanceCents(Math.addExact(usdWallet.getBalanceCents(), amountUsdCents));
+		walletService.credit(userId, Currency.USD, amountUsdCents);
 
 		var tx = new TransactionEntity();
 		tx.setUserId(userId);
@@ -55,8 +43,6 @@ public class ExchangeService {
 
 	@Transactional
 	public ConvertResult convertUsdToTrv(Long userId, long amountUsdCents, String idempotencyKey) {
-		walletService.ensureUserWallets(userId);
-
 		if (idempotencyKey != null && !idempotencyKey.isBlank()) {
 			var existing = transactions.findByUserIdAndIdempotencyKey(userId, idempotencyKey);
 			if (existing.isPresent()) {
@@ -70,46 +56,12 @@ public class ExchangeService {
 
 		long feeUsdCents = feeUsdCentsForConversion(amountUsdCents);
 
-		var lockedWallets = wallets.findForUpdate(userId, List.of(Currency.USD, Currency.TRV));
-		var map = new EnumMap<Currency, trenvus.Exchange.wallet.WalletEntity>(Currency.class);
-		for (var w : lockedWallets) {
-			map.put(w.getCurrency(), w);
-		}
-		var usdWallet = map.get(Currency.USD);
-		var trvWallet = map.get(Currency.TRV);
-		if (usdWallet == null || trvWallet == null) {
-			throw new IllegalStateException("Carteira não inicializada");
-		}
-
+		// USD is always updated before TRV, so opposite conversions by one user cannot deadlock
 		long debitUsd = Math.addExact(amountUsdCents, feeUsdCents);
-		if (usdWallet.getBalanceCents() < debitUsd) {
-			throw new IllegalArgumentException("Saldo insuficiente");
-		}
+		debit(userId, Currency.USD, debitUsd);
+		walletService.credit(userId, Currency.TRV, amountUsdCents);
 
-		usdWallet.setBalanceCents(usdWallet.getBalanceCents() - debitUsd);
-		trvWallet.setBalanceCents(Math.addExact(trvWallet.getBalanceCents(), amountUsdCents));
-
-		// Transfer fee to admin
-		Long adminUserId = getAdminUserId();
-		if (adminUserId != null && feeUsdCents > 0) {
-			walletService.ensureUserWallets(adminUserId);
-			var adminWallets = wallets.findForUpdate(adminUserId, List.of(Currency.USD));
-			var adminUsdWallet = adminWallets.stream()
-					.filter(w -> w.getCurrency() == Currency.USD)
-					.findFirst()
-					.orElse(null);
-			if (adminUsdWallet != null) {
-				adminUsdWallet.setBalanceCents(Math.addExact(adminUsdWallet.getBalanceCents(), feeUsdCents));
-				
-				// Create fee income transaction for admin
-				var adminTx = new TransactionEntity();
-				adminTx.setUserId(adminUserId);
-				adminTx.setType(TransactionType.FEE_INCOME_USD);
-				adminTx.setUsdAmountCents(feeUsdCents);
-				adminTx.setSourceUserId(userId);
-				transactions.save(adminTx);
-			}
-		}
+		feeTreasury.creditFee(userId, feeUsdCents);
 
 		var tx = new TransactionEntity();
 		tx.setUserId(userId);
@@ -137,8 +89,6 @@ public class ExchangeService {
 
 	@Transactional
 	public ConvertResult convertTrvToUsd(Long userId, long amountTrvCents, String idempotencyKey) {
-		walletService.ensureUserWallets(userId);
-
 		if (idempotencyKey != null && !idempotencyKey.isBlank()) {
 			var existing = transactions.findByUserIdAndIdempotencyKey(userId, idempotencyKey);
 			if (existing.isPresent()) {
@@ -155,46 +105,12 @@ public class ExchangeService {
 			throw new IllegalArgumentException("Valor deve ser maior que a taxa");
 		}
 
-		var lockedWallets = wallets.findForUpdate(userId, List.of(Currency.USD, Currency.TRV));
-		var map = new EnumMap<Currency, trenvus.Exchange.wallet.WalletEntity>(Currency.class);
-		for (var w : lockedWallets) {
-			map.put(w.getCurrency(), w);
-		}
-		var usdWallet = map.get(Currency.USD);
-		var trvWallet = map.get(Currency.TRV);
-		if (usdWallet == null || trvWallet == null) {
-			throw new IllegalStateException("Carteira não inicializada");
-		}
-
-		if (trvWallet.getBalanceCents() < amountTrvCents) {
-			throw new IllegalArgumentException("Saldo insuficiente");
-		}
-
+		// USD first, as in convertUsdToTrv; a short TRV balance rolls the credit back
 		long creditUsd = Math.subtractExact(amountTrvCents, feeUsdCents);
-		trvWallet.setBalanceCents(trvWallet.getBalanceCents() - amountTrvCents);
-		usdWallet.setBalanceCents(Math.addExact(usdWallet.getBalanceCents(), creditUsd));
-
-		// Transfer fee to admin
-		Long adminUserId = getAdminUserId();
-		if (adminUserId != null && feeUsdCents > 0) {
-			walletService.ensureUserWallets(adminUserId);
-			var adminWallets = wallets.findForUpdate(adminUserId, List.of(Currency.USD));
-			var adminUsdWallet = adminWallets.stream()
-					.filter(w -> w.getCurrency() == Currency.USD)
-					.findFirst()
-					.orElse(null);
-			if (adminUsdWallet != null) {
-				adminUsdWallet.setBalanceCents(Math.addExact(adminUsdWallet.getBalanceCents(), feeUsdCents));
-				
-				// Create fee income transaction for admin
-				var adminTx = new TransactionEntity();
-				adminTx.setUserId(adminUserId);
-				adminTx.setType(TransactionType.FEE_INCOME_USD);
-				adminTx.setUsdAmountCents(feeUsdCents);
-				adminTx.setSourceUserId(userId);
-				transactions.save(adminTx);
-			}
-		}
+		walletService.credit(userId, Currency.USD, creditUsd);
+		debit(userId, Currency.TRV, amountTrvCents);
+
+		feeTreasury.creditFee(userId, feeUsdCents);
 
 		var tx = new TransactionEntity();
 		tx.setUserId(userId);
@@ -220,6 +136,12 @@ public class ExchangeService {
 		return new ConvertResult(snapshot.usdCents(), snapshot.trvCents(), tx.getId(), feeUsdCents);
 	}
 
+	private void debit(Long userId, Currency currency, long amountCents) {
+		if (!walletService.debit(userId, currency, amountCents)) {
+			throw new IllegalArgumentException("Saldo insuficiente");
+		}
+	}
+
 	private static long feeUsdCentsForConversion(long amountCents) {
 		long fee = Math.floorDiv(amountCents, 100);
 		if (fee <= 0) {
@@ -228,24 +150,6 @@ public class ExchangeService {
 		return fee;
 	}
 
-	private Long getAdminUserId() {
-		// Try to find by ADMIN role
-		var admin = users.findAll().stream()
-				.filter(u -> u.getRole() != null && "ADMIN".equals(u.getRole().name()))
-				.findFirst();
-		
-		if (admin.isPresent()) {
-			return admin.get().getId();
-		}
-		
-		// Fallback: try to find by email pattern
-		var adminByEmail = users.findAll().stream()
-				.filter(u -> u.getEmail() != null && u.getEmail().toLowerCase().contains("admin"))
-				.findFirst();
-		
-		return adminByEmail.map(trenvus.Exchange.user.UserEntity::getId).orElse(null);
-	}
-
 	public record WalletOperationResult(long usdCents, long trvCents, Long transactionId) {}
 
 	public record ConvertResult(long usdCents, long trvCents, Long transactionId, long feeUsdCents) {}
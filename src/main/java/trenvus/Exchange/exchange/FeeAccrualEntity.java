@@ -0,0 +1,83 @@
+package trenvus.Exchange.exchange;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+
+@Entity
+@Table(name = "fee_accruals")
+public class FeeAccrualEntity {
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(name = "treasury_user_id", nullable = false)
+	private Long treasuryUserId;
+
+	@Column(name = "source_user_id")
+	private Long sourceUserId;
+
+	@Column(name = "usd_cents", nullable = false)
+	private long usdCents;
+
+	@Column(name = "created_at", nullable = false)
+	private Instant createdAt = Instant.now();
+
+	@Column(name = "settled_at")
+	private Instant settledAt;
+
+	@Column(name = "transaction_id")
+	private Long transactionId;
+
+	public Long getId() {
+		return id;
+	}
+
+	public Long getTreasuryUserId() {
+		return treasuryUserId;
+	}
+
+	public void setTreasuryUserId(Long treasuryUserId) {
+		this.treasuryUserId = treasuryUserId;
+	}
+
+	public Long getSourceUserId() {
+		return sourceUserId;
+	}
+
+	public void setSourceUserId(Long sourceUserId) {
+		this.sourceUserId = sourceUserId;
+	}
+
+	public long getUsdCents() {
+		return usdCents;
+	}
+
+	public void setUsdCents(long usdCents) {
+		this.usdCents = usdCents;
+	}
+
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+	public Instant getSettledAt() {
+		return settledAt;
+	}
+
+	public void setSettledAt(Instant settledAt) {
+		this.settledAt = settledAt;
+	}
+
+	public Long getTransactionId() {
+		return transactionId;
+	}
+
+	public void setTransactionId(Long transactionId) {
+		this.transactionId = transactionId;
+	}
+}
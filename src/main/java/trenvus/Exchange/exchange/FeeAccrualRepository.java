@@ -0,0 +1,21 @@
+package trenvus.Exchange.exchange;
+
+import jakarta.persistence.LockModeType;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface FeeAccrualRepository extends JpaRepository<FeeAccrualEntity, Long> {
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select a from FeeAccrualEntity a where a.settledAt is null order by a.id")
+	List<FeeAccrualEntity> findPendingForUpdate(Pageable pageable);
+
+	@Query("select a from FeeAccrualEntity a where a.treasuryUserId = :userId and a.settledAt is null order by a.id desc")
+	List<FeeAccrualEntity> findPendingByTreasuryUserId(@Param("userId") Long userId, Pageable pageable);
+
+	@Query("select coalesce(sum(a.usdCents), 0) from FeeAccrualEntity a where a.treasuryUserId = :userId and a.settledAt is null")
+	long sumPendingUsdCents(@Param("userId") Long userId);
+}
@@ -0,0 +1,65 @@
+package trenvus.Exchange.exchange;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/** Settles pending fee accruals into the treasury wallet on a fixed delay, one batch per transaction. */
+@Component
+public class FeeAccrualSettler {
+	private static final Logger log = LoggerFactory.getLogger(FeeAccrualSettler.class);
+
+	private final FeeTreasury feeTreasury;
+	private final long intervalSeconds;
+	private final int batchSize;
+	private final ScheduledExecutorService scheduler;
+
+	public FeeAccrualSettler(
+			FeeTreasury feeTreasury,
+			@Value("${FEE_SETTLE_INTERVAL_SECONDS:60}") long intervalSeconds,
+			@Value("${FEE_SETTLE_BATCH_SIZE:500}") int batchSize
+	) {
+		this.feeTreasury = feeTreasury;
+		this.intervalSeconds = Math.max(1, intervalSeconds);
+		this.batchSize = Math.max(1, batchSize);
+		this.scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+			var t = new Thread(r, "fee-accrual-settler");
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	void start() {
+		scheduler.scheduleWithFixedDelay(this::settleQuietly, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+	}
+
+	@PreDestroy
+	void shutdown() {
+		scheduler.shutdownNow();
+		settleQuietly();
+	}
+
+	private void settleQuietly() {
+		try {
+			long settled = 0;
+			int count;
+			do {
+				count = feeTreasury.settle(batchSize);
+				settled += count;
+			} while (count == batchSize && !Thread.currentThread().isInterrupted());
+			if (settled != 0) {
+				log.debug("Settled {} fee accruals into treasury wallets", settled);
+			}
+		} catch (Exception e) {
+			log.warn("Fee accrual settlement failed: {}", e.toString());
+		}
+	}
+}
@@ -0,0 +1,123 @@
+package trenvus.Exchange.exchange;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import trenvus.Exchange.tx.TransactionEntity;
+import trenvus.Exchange.tx.TransactionRepository;
+import trenvus.Exchange.tx.TransactionType;
+import trenvus.Exchange.wallet.Currency;
+import trenvus.Exchange.wallet.WalletService;
+
+/**
+ * Conversion fee income. A conversion only appends a row to the {@code fee_accruals} journal, so it
+ * locks nothing but the paying user's own wallets. {@link #settle(int)} later folds pending accruals into
+ * the treasury's USD wallet in batches and writes their FEE_INCOME_USD statement lines. Until then the
+ * treasury's reported balance and fee income include the pending accruals.
+ */
+@Service
+public class FeeTreasury {
+	private final FeeAccrualRepository accruals;
+	private final FeeTreasuryResolver resolver;
+	private final WalletService walletService;
+	private final TransactionRepository transactions;
+
+	public FeeTreasury(
+			FeeAccrualRepository accruals,
+			FeeTreasuryResolver resolver,
+			WalletService walletService,
+			TransactionRepository transactions
+	) {
+		this.accruals = accruals;
+		this.resolver = resolver;
+		this.walletService = walletService;
+		this.transactions = transactions;
+	}
+
+	/**
+	 * Records a conversion fee paid by {@code sourceUserId} for the current treasury account. Runs inside
+	 * the caller's transaction; does nothing when there is no treasury account.
+	 */
+	@Transactional
+	public void creditFee(Long sourceUserId, long feeUsdCents) {
+		Long treasuryUserId = resolver.treasuryUserId();
+		if (treasuryUserId == null || feeUsdCents <= 0) {
+			return;
+		}
+		var accrual = new FeeAccrualEntity();
+		accrual.setTreasuryUserId(treasuryUserId);
+		accrual.setSourceUserId(sourceUserId);
+		accrual.setUsdCents(feeUsdCents);
+		accruals.save(accrual);
+	}
+
+	/**
+	 * Settles up to {@code batchSize} of the oldest pending accruals and returns how many were settled.
+	 * The accrual rows are locked first, so concurrent settlers on other replicas never settle the same
+	 * row twice; treasury wallets are then credited in id order.
+	 */
+	@Transactional
+	public int settle(int batchSize) {
+		var batch = accruals.findPendingForUpdate(PageRequest.of(0, Math.max(1, batchSize)));
+		if (batch.isEmpty()) {
+			return 0;
+		}
+		var byTreasury = new TreeMap<Long, List<FeeAccrualEntity>>();
+		for (var accrual : batch) {
+			byTreasury.computeIfAbsent(accrual.getTreasuryUserId(), k -> new ArrayList<>()).add(accrual);
+		}
+
+		var now = Instant.now();
+		for (var entry : byTreasury.entrySet()) {
+			Long treasuryUserId = entry.getKey();
+			long total = 0;
+			for (var accrual : entry.getValue()) {
+				var tx = new TransactionEntity();
+				tx.setUserId(treasuryUserId);
+				tx.setType(TransactionType.FEE_INCOME_USD);
+				tx.setUsdAmountCents(accrual.getUsdCents());
+				tx.setSourceUserId(accrual.getSourceUserId());
+				tx.setCreatedAt(accrual.getCreatedAt());
+				tx = transactions.save(tx);
+
+				accrual.setSettledAt(now);
+				accrual.setTransactionId(tx.getId());
+				total = Math.addExact(total, accrual.getUsdCents());
+			}
+			walletService.credit(treasuryUserId, Currency.USD, total);
+		}
+		return batch.size();
+	}
+
+	/** Fee income accrued for {@code userId} and not settled into their wallet yet. */
+	@Transactional(readOnly = true)
+	public long pendingUsdCents(Long userId) {
+		return userId == null ? 0 : accruals.sumPendingUsdCents(userId);
+	}
+
+	/** The newest pending accruals for {@code userId}. */
+	@Transactional(readOnly = true)
+	public List<FeeAccrualEntity> pendingAccruals(Long userId, int limit) {
+		return userId == null ? List.of() : accruals.findPendingByTreasuryUserId(userId, PageRequest.of(0, Math.max(1, limit)));
+	}
+
+	/**
+	 * The wallet as its owner should see it: USD includes fee income not settled yet. Fees accrue only
+	 * to the current treasury account, so every other user is answered from the cached id without a query.
+	 */
+	@Transactional(readOnly = true)
+	public WalletService.WalletSnapshot withPendingFees(Long userId, WalletService.WalletSnapshot snapshot) {
+		if (userId == null || !userId.equals(resolver.treasuryUserId())) {
+			return snapshot;
+		}
+		long pending = pendingUsdCents(userId);
+		if (pending == 0) {
+			return snapshot;
+		}
+		return new WalletService.WalletSnapshot(Math.addExact(snapshot.usdCents(), pending), snapshot.trvCents());
+	}
+}
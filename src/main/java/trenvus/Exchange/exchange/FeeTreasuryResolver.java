@@ -0,0 +1,84 @@
+package trenvus.Exchange.exchange;
+
+import java.time.Duration;
+import java.time.Instant;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import trenvus.Exchange.user.UserEntity;
+import trenvus.Exchange.user.UserRepository;
+import trenvus.Exchange.user.UserRole;
+
+/**
+ * Resolves the account that receives conversion fees. {@code FEE_TREASURY_EMAIL} names it explicitly;
+ * otherwise it is the oldest ADMIN, and as a last resort the oldest account whose email contains
+ * "admin". The answer is cached so conversions do not query users at all; role changes call
+ * {@link #invalidateAfterCommit()}, and the cache also expires on its own so other replicas pick changes up.
+ */
+@Service
+public class FeeTreasuryResolver {
+	private final UserRepository users;
+	private final String treasuryEmail;
+	private final Duration cacheTtl;
+
+	private volatile Resolved cached;
+
+	public FeeTreasuryResolver(
+			UserRepository users,
+			@Value("${FEE_TREASURY_EMAIL:}") String treasuryEmail,
+			@Value("${FEE_TREASURY_CACHE_SECONDS:300}") long cacheSeconds
+	) {
+		this.users = users;
+		this.treasuryEmail = treasuryEmail == null ? "" : treasuryEmail.trim();
+		this.cacheTtl = Duration.ofSeconds(Math.max(1, cacheSeconds));
+	}
+
+	/** The fee treasury user id, or {@code null} when no account qualifies. */
+	public Long treasuryUserId() {
+		var current = cached;
+		if (current != null && current.expiresAt().isAfter(Instant.now())) {
+			return current.userId();
+		}
+		var resolved = new Resolved(lookup(), Instant.now().plus(cacheTtl));
+		cached = resolved;
+		return resolved.userId();
+	}
+
+	public void invalidate() {
+		cached = null;
+	}
+
+	/**
+	 * Drops the cached answer once the current transaction commits. Clearing it earlier would let a
+	 * concurrent conversion re-resolve from the old, still-committed roles and cache that for a full TTL.
+	 * Without a transaction the cache is dropped immediately.
+	 */
+	public void invalidateAfterCommit() {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			invalidate();
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				invalidate();
+			}
+		});
+	}
+
+	private Long lookup() {
+		if (!treasuryEmail.isEmpty()) {
+			var configured = users.findByEmail(treasuryEmail);
+			if (configured.isPresent()) {
+				return configured.get().getId();
+			}
+		}
+		return users.findFirstByRoleOrderByIdAsc(UserRole.ADMIN)
+				.or(() -> users.findFirstByEmailContainingIgnoreCaseOrderByIdAsc("admin"))
+				.map(UserEntity::getId)
+				.orElse(null);
+	}
+
+	private record Resolved(Long userId, Instant expiresAt) {}
+}
@@ -15,28 +15,26 @@ import trenvus.Exchange.tx.TransactionType;
 import trenvus.Exchange.user.UserEntity;
 import trenvus.Exchange.user.UserRepository;
 import trenvus.Exchange.wallet.Currency;
-import trenvus.Exchange.wallet.WalletEntity;
-import trenvus.Exchange.wallet.WalletRepository;
+import trenvus.Exchange.wallet.WalletService;
 import trenvus.Exchange.wallet.WalletController.WalletResponse;
 
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.Base64;
-import java.util.List;
 import java.util.UUID;
 
 @Service
 public class InvoiceService {
     private static final Logger logger = LoggerFactory.getLogger(InvoiceService.class);
     
-    private final WalletRepository wallets;
+    private final WalletService walletService;
     private final TransactionRepository transactions;
     private final UserRepository users;
     private final ObjectMapper objectMapper;
 
-    public InvoiceService(WalletRepository wallets, TransactionRepository transactions, 
+    public InvoiceService(WalletService walletService, TransactionRepository transactions, 
                          UserRepository users, ObjectMapper objectMapper) {
-        this.wallets = wallets;
+        this.walletService = walletService;
         this.transactions = transactions;
         this.users = users;
         this.objectMapper = objectMapper;
@@ -119,30 +117,25 @@ public class InvoiceService {
                 UserEntity newUser = new UserEntity();
                 newUser.setEmail(simulatedPayerEmail);
                 newUser.setPasswordHash("DEMO");
-                return users.saveAndFlush(newUser);
+                newUser = users.saveAndFlush(newUser);
+                walletService.ensureUserWallets(newUser.getId());
+                return newUser;
             });
         
         Long simulatedPayerId = simulatedPayer.getId();
         logger.info("Using simulated payer with ID: {}", simulatedPayerId);
         
-        // Ensure simulated payer has sufficient balance
-        Currency currency = Currency.valueOf(request.currency());
-        ensureWalletExists(simulatedPayerId, currency);
-        ensureWalletExists(recipientId, currency);
-        
         // Credit the simulated payer with enough funds
-        var payerWallet = wallets.findByUserIdAndCurrency(simulatedPayerId, currency).orElseThrow();
+        Currency currency = Currency.valueOf(request.currency());
         long amountCents = request.amount().multiply(BigDecimal.valueOf(100)).longValue();
-        payerWallet.setBalanceCents(payerWallet.getBalanceCents() + amountCents + 10000); // Add extra buffer
-        wallets.save(payerWallet);
+        walletService.credit(simulatedPayerId, currency, amountCents + 10000); // Add extra buffer
 
         // Process the payment
         processPaymentInternal(simulatedPayerId, recipientId, request);
 
         // Return updated recipient balance
-        long newBalanceCents = wallets.findByUserIdAndCurrency(recipientId, currency)
-                .map(WalletEntity::getBalanceCents)
-                .orElse(0L);
+        var recipientSnapshot = walletService.getSnapshot(recipientId);
+        long newBalanceCents = currency == Currency.USD ? recipientSnapshot.usdCents() : recipientSnapshot.trvCents();
 
         return new InvoiceController.SimulatePayResponse(
             simulatedPayerId,
@@ -172,35 +165,15 @@ public class InvoiceService {
 
         Currency currency = Currency.valueOf(request.currency());
         
-        // Ensure wallets exist
-        ensureWalletExists(payerUserId, currency);
-        ensureWalletExists(recipientId, currency);
-
-        // Get wallets with locking
-        Long first = payerUserId < recipientId ? payerUserId : recipientId;
-        Long second = payerUserId < recipientId ? recipientId : payerUserId;
-
-        var firstLocked = wallets.findForUpdate(first, List.of(currency));
-        var secondLocked = wallets.findForUpdate(second, List.of(currency));
-
-        var payerWallet = (payerUserId.equals(first) ? firstLocked : secondLocked).stream()
-                .filter(w -> w.getCurrency() == currency)
-                .findFirst()
-                .orElseThrow();
-        var recipientWallet = (recipientId.equals(first) ? firstLocked : secondLocked).stream()
-                .filter(w -> w.getCurrency() == currency)
-                .findFirst()
-                .orElseThrow();
-
-        // Check balance
-        if (payerWallet.getBalanceCents() < amountCents) {
-            throw new IllegalArgumentException("Saldo insuficiente");
+        // Single conditional updates, in user id order so opposite payments cannot deadlock
+        if (payerUserId < recipientId) {
+            debit(payerUserId, currency, amountCents);
+            walletService.credit(recipientId, currency, amountCents);
+        } else {
+            walletService.credit(recipientId, currency, amountCents);
+            debit(payerUserId, currency, amountCents);
         }
 
-        // Process transfer
-        payerWallet.setBalanceCents(payerWallet.getBalanceCents() - amountCents);
-        recipientWallet.setBalanceCents(Math.addExact(recipientWallet.getBalanceCents(), amountCents));
-
         // Create transactions
         var outTx = new TransactionEntity();
         outTx.setUserId(payerUserId);
@@ -227,14 +200,14 @@ public class InvoiceService {
         transactions.save(inTx);
 
         // Return updated payer wallet
-        long usdCents = wallets.findByUserIdAndCurrency(payerUserId, Currency.USD)
-                .map(WalletEntity::getBalanceCents)
-                .orElse(0L);
-        long trvCents = wallets.findByUserIdAndCurrency(payerUserId, Currency.TRV)
-                .map(WalletEntity::getBalanceCents)
-                .orElse(0L);
+        var payerSnapshot = walletService.getSnapshot(payerUserId);
+        return new WalletResponse(payerSnapshot.usdCents(), payerSnapshot.trvCents());
+    }
 
-        return new WalletResponse(usdCents, trvCents);
+    private void debit(Long userId, Currency currency, long amountCents) {
+        if (!walletService.debit(userId, currency, amountCents)) {
+            throw new IllegalArgumentException("Saldo insuficiente");
+        }
     }
 
     public InvoiceQrResponse generateQrData(Long userId, String userEmail, String userNickname, 
@@ -272,17 +245,6 @@ public class InvoiceService {
         );
     }
 
-    public void ensureWalletExists(Long userId, Currency currency) {
-        wallets.findByUserIdAndCurrency(userId, currency)
-                .orElseGet(() -> {
-                    var w = new WalletEntity();
-                    w.setUserId(userId);
-                    w.setCurrency(currency);
-                    w.setBalanceCents(0L);
-                    return wallets.save(w);
-                });
-    }
-
     public record QrPayload(
             String type,
             String qrCodeId,
@@ -0,0 +1,152 @@
+package trenvus.Exchange.market;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import trenvus.Exchange.market.MarketDataService.CandlePoint;
+
+/**
+ * Bounded candle cache keyed by {@code instId|bar}. Each entry holds the longest series fetched for the
+ * key, so a request for a shorter limit is served as the tail of the stored series instead of being a
+ * separate entry. Entries expire after the TTL and the least recently used ones are evicted once the
+ * cache grows past {@code maxEntries}.
+ */
+final class CandleCache implements MeterBinder {
+	private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+	private final int maxEntries;
+	private final long ttlNanos;
+	private final LongSupplier nanoTime;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	CandleCache(int maxEntries, Duration ttl) {
+		this(maxEntries, ttl, System::nanoTime);
+	}
+
+	CandleCache(int maxEntries, Duration ttl, LongSupplier nanoTime) {
+		this.maxEntries = Math.max(1, maxEntries);
+		this.ttlNanos = ttl.toNanos();
+		this.nanoTime = nanoTime;
+	}
+
+	/** Returns the newest {@code limit} points for the key, or {@code null} on a miss. */
+	List<CandlePoint> get(String instId, String bar, int limit) {
+		var value = lookup(instId, bar, limit);
+		if (value == null) {
+			misses.increment();
+		} else {
+			hits.increment();
+		}
+		return value;
+	}
+
+	/** Same as {@link #get} without touching the hit/miss counters (used to re-check inside a load). */
+	List<CandlePoint> lookup(String instId, String bar, int limit) {
+		String key = key(instId, bar);
+		var entry = entries.get(key);
+		if (entry == null) {
+			return null;
+		}
+		long now = nanoTime.getAsLong();
+		if (now - entry.storedAt >= ttlNanos) {
+			if (entries.remove(key, entry)) {
+				evictions.increment();
+			}
+			return null;
+		}
+		if (entry.fetchedLimit < limit) {
+			return null;
+		}
+		entry.lastAccess = now;
+		return tail(entry.series, limit);
+	}
+
+	void put(String instId, String bar, int fetchedLimit, List<CandlePoint> series) {
+		long now = nanoTime.getAsLong();
+		entries.put(key(instId, bar), new Entry(List.copyOf(series), fetchedLimit, now));
+		if (entries.size() > maxEntries) {
+			evict(now);
+		}
+	}
+
+	Stats stats() {
+		return new Stats(entries.size(), hits.sum(), misses.sum(), evictions.sum());
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("market.cache.size", entries, ConcurrentHashMap::size)
+				.tag("cache", "candles")
+				.register(registry);
+		FunctionCounter.builder("market.cache.requests", hits, LongAdder::sum)
+				.tag("cache", "candles")
+				.tag("result", "hit")
+				.register(registry);
+		FunctionCounter.builder("market.cache.requests", misses, LongAdder::sum)
+				.tag("cache", "candles")
+				.tag("result", "miss")
+				.register(registry);
+		FunctionCounter.builder("market.cache.evictions", evictions, LongAdder::sum)
+				.tag("cache", "candles")
+				.register(registry);
+	}
+
+	private void evict(long now) {
+		for (var e : entries.entrySet()) {
+			if (now - e.getValue().storedAt >= ttlNanos && entries.remove(e.getKey(), e.getValue())) {
+				evictions.increment();
+			}
+		}
+		while (entries.size() > maxEntries) {
+			String oldestKey = null;
+			Entry oldest = null;
+			for (var e : entries.entrySet()) {
+				if (oldest == null || e.getValue().lastAccess < oldest.lastAccess) {
+					oldestKey = e.getKey();
+					oldest = e.getValue();
+				}
+			}
+			if (oldest == null) {
+				return;
+			}
+			if (entries.remove(oldestKey, oldest)) {
+				evictions.increment();
+			}
+		}
+	}
+
+	static List<CandlePoint> tail(List<CandlePoint> series, int limit) {
+		if (series.size() <= limit) {
+			return series;
+		}
+		return series.subList(series.size() - limit, series.size());
+	}
+
+	private static String key(String instId, String bar) {
+		return instId + "|" + bar;
+	}
+
+	record Stats(int size, long hits, long misses, long evictions) {}
+
+	private static final class Entry {
+		final List<CandlePoint> series;
+		final int fetchedLimit;
+		final long storedAt;
+		volatile long lastAccess;
+
+		Entry(List<CandlePoint> series, int fetchedLimit, long storedAt) {
+			this.series = series;
+			this.fetchedLimit = fetchedLimit;
+			this.storedAt = storedAt;
+			this.lastAccess = storedAt;
+		}
+	}
+}
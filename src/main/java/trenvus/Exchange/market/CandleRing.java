@@ -0,0 +1,77 @@
+package trenvus.Exchange.market;
+
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.List;
+import trenvus.Exchange.market.MarketDataService.CandlePoint;
+
+/**
+ * Fixed-capacity ring of {@code (timestamp, close)} points on primitive arrays. Appends overwrite the
+ * oldest slot and never allocate. There must be a single writer at a time; readers take lock-free
+ * snapshots guarded by a sequence counter (odd while a write is in progress) and retry if a write
+ * overlapped their copy.
+ */
+final class CandleRing {
+	private final long[] ts;
+	private final double[] close;
+
+	private volatile long seq;
+	/** Points appended so far; only the last {@code capacity} are retained. */
+	private long count;
+
+	CandleRing(int capacity) {
+		this.ts = new long[Math.max(1, capacity)];
+		this.close = new double[ts.length];
+	}
+
+	/** Appends a point, or replaces the newest one when it has the same timestamp. Single writer only. */
+	void append(long tsMillis, double price) {
+		long s = seq;
+		seq = s + 1;
+		VarHandle.storeStoreFence();
+		if (count > 0 && ts[slot(count - 1)] == tsMillis) {
+			close[slot(count - 1)] = price;
+		} else {
+			int i = slot(count);
+			ts[i] = tsMillis;
+			close[i] = price;
+			count++;
+		}
+		seq = s + 2;
+	}
+
+	/** The newest {@code limit} points, oldest first. */
+	List<CandlePoint> tail(int limit) {
+		long[] tsCopy = new long[Math.min(Math.max(0, limit), ts.length)];
+		double[] closeCopy = new double[tsCopy.length];
+		int n;
+		while (true) {
+			long before = seq;
+			if ((before & 1) != 0) {
+				Thread.onSpinWait();
+				continue;
+			}
+			long total = count;
+			n = (int) Math.min(tsCopy.length, total);
+			long start = total - n;
+			for (int i = 0; i < n; i++) {
+				int slot = slot(start + i);
+				tsCopy[i] = ts[slot];
+				closeCopy[i] = close[slot];
+			}
+			VarHandle.loadLoadFence();
+			if (seq == before) {
+				break;
+			}
+		}
+		var out = new ArrayList<CandlePoint>(n);
+		for (int i = 0; i < n; i++) {
+			out.add(new CandlePoint(String.valueOf(tsCopy[i]), closeCopy[i]));
+		}
+		return out;
+	}
+
+	private int slot(long index) {
+		return (int) (index % ts.length);
+	}
+}
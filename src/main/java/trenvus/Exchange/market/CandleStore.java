@@ -0,0 +1,350 @@
+package trenvus.Exchange.market;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import trenvus.Exchange.market.MarketDataService.CandlePoint;
+
+/**
+ * OHLCV candle history for the {@code 1m}, {@code 5m}, {@code 1H} and {@code 1D} bars. Ticks seen by the
+ * market refresh are folded into every resolution as they arrive, upstream candles (OKX) are merged in
+ * as authoritative bars, and changed bars are flushed to {@code market_candles} in batches so history
+ * survives restarts. The newest bars of each series stay in memory; older ranges are read from the table.
+ */
+@Service
+public class CandleStore {
+	private static final Logger log = LoggerFactory.getLogger(CandleStore.class);
+	private static final int MAX_RANGE_CANDLES = 1000;
+
+	/** Bar sizes handled by the store; the daily bar opens at 00:00 UTC+8 like OKX's {@code 1D}. */
+	private static final Map<String, long[]> BARS = Map.of(
+			"1m", new long[] {60_000L, 0L},
+			"5m", new long[] {300_000L, 0L},
+			"1H", new long[] {3_600_000L, 0L},
+			"1D", new long[] {86_400_000L, 8 * 3_600_000L}
+	);
+	private static final String[] BAR_NAMES = {"1m", "5m", "1H", "1D"};
+
+	private final MarketCandleRepository repository;
+	private final boolean persist;
+	private final int memoryBars;
+	private final long resyncMillis;
+	private final ConcurrentHashMap<String, Series> series = new ConcurrentHashMap<>();
+	private final ScheduledExecutorService flusher;
+
+	public CandleStore(
+			MarketCandleRepository repository,
+			@Value("${MARKET_CANDLE_PERSIST:true}") boolean persist,
+			@Value("${MARKET_CANDLE_MEMORY_BARS:1000}") int memoryBars,
+			@Value("${MARKET_CANDLE_FLUSH_MS:15000}") long flushMs,
+			@Value("${MARKET_CANDLE_RESYNC_SECONDS:900}") long resyncSeconds
+	) {
+		this.repository = repository;
+		this.persist = persist;
+		this.memoryBars = Math.max(100, memoryBars);
+		this.resyncMillis = Duration.ofSeconds(Math.max(60, resyncSeconds)).toMillis();
+		this.flusher = new ScheduledThreadPoolExecutor(1, r -> {
+			var t = new Thread(r, "market-candles");
+			t.setDaemon(true);
+			return t;
+		});
+		if (persist) {
+			long interval = Math.max(1000, flushMs);
+			this.flusher.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	@PreDestroy
+	void shutdown() {
+		flusher.shutdownNow();
+		flush();
+	}
+
+	static boolean supports(String bar) {
+		return BARS.containsKey(bar);
+	}
+
+	static long barMillis(String bar) {
+		return BARS.get(bar)[0];
+	}
+
+	/** Folds one price observation into the bar that contains {@code tsMillis} for every resolution. */
+	public void recordTick(String instId, long tsMillis, double price, double volume) {
+		if (!(price > 0) || Double.isInfinite(price)) {
+			return;
+		}
+		for (var bar : BAR_NAMES) {
+			var s = series(instId, bar);
+			long openTime = s.openTime(tsMillis);
+			synchronized (s) {
+				var candle = s.bars.get(openTime);
+				if (candle == null) {
+					candle = new Bar(openTime, price);
+					s.bars.put(openTime, candle);
+					s.trim(memoryBars);
+				}
+				candle.high = Math.max(candle.high, price);
+				candle.low = Math.min(candle.low, price);
+				candle.close = price;
+				candle.volume += Math.max(0, volume);
+				s.markDirty(candle);
+			}
+		}
+	}
+
+	/** Replaces bars with upstream candles (full OHLCV) and records when the series was last synced. */
+	public void merge(String instId, String bar, List<CandlePoint> candles, long nowMillis) {
+		var s = series(instId, bar);
+		synchronized (s) {
+			for (var c : candles) {
+				long openTime = parseTs(c.ts());
+				if (openTime < 0) continue;
+				var candle = s.bars.get(openTime);
+				if (candle == null) {
+					candle = new Bar(openTime, c.open());
+					s.bars.put(openTime, candle);
+				}
+				candle.open = c.open();
+				candle.high = c.high();
+				candle.low = c.low();
+				candle.close = c.close();
+				candle.volume = c.volume();
+				s.markDirty(candle);
+			}
+			s.trim(memoryBars);
+			s.syncedAt = nowMillis;
+		}
+	}
+
+	/** Whether the series was never merged from upstream in this process or the last merge is too old. */
+	public boolean needsSync(String instId, String bar, long nowMillis) {
+		var s = series(instId, bar);
+		synchronized (s) {
+			return s.syncedAt < 0 || nowMillis - s.syncedAt >= resyncMillis;
+		}
+	}
+
+	public boolean isEmpty(String instId, String bar) {
+		var s = series(instId, bar);
+		synchronized (s) {
+			return s.bars.isEmpty();
+		}
+	}
+
+	/** The newest {@code limit} bars, oldest first. */
+	public List<CandlePoint> latest(String instId, String bar, int limit) {
+		var s = series(instId, bar);
+		synchronized (s) {
+			var out = new ArrayList<CandlePoint>(Math.min(limit, s.bars.size()));
+			for (var candle : s.bars.descendingMap().values()) {
+				if (out.size() >= limit) break;
+				out.add(candle.toPoint());
+			}
+			Collections.reverse(out);
+			return out;
+		}
+	}
+
+	/**
+	 * Bars opening within {@code [from, to]} (epoch millis), oldest first, capped at {@code limit}. Served
+	 * from memory when the in-memory window covers {@code from}; otherwise read from the table with the
+	 * in-memory bars of the range laid over it, since those may not have been flushed yet.
+	 */
+	public List<CandlePoint> range(String instId, String bar, long from, long to, int limit) {
+		int cap = Math.max(1, Math.min(MAX_RANGE_CANDLES, limit));
+		var s = series(instId, bar);
+		var merged = new TreeMap<Long, CandlePoint>();
+		synchronized (s) {
+			boolean fromMemory = !s.bars.isEmpty() && (s.bars.firstKey() <= from || !persist);
+			for (var candle : s.bars.subMap(from, true, to, true).values()) {
+				if (merged.size() >= cap) break;
+				merged.put(candle.openTime, candle.toPoint());
+			}
+			if (fromMemory || !persist) {
+				return new ArrayList<>(merged.values());
+			}
+		}
+		var rows = repository.findByInstIdAndBarAndOpenTimeBetweenOrderByOpenTimeAsc(instId, bar, from, to, PageRequest.of(0, cap));
+		for (var row : rows) {
+			merged.putIfAbsent(row.getOpenTime(), toPoint(row));
+		}
+		var out = new ArrayList<CandlePoint>(Math.min(cap, merged.size()));
+		for (var point : merged.values()) {
+			if (out.size() >= cap) break;
+			out.add(point);
+		}
+		return out;
+	}
+
+	/** Writes every bar changed since the last flush. Runs on the flusher thread and on shutdown. */
+	synchronized void flush() {
+		if (!persist) {
+			return;
+		}
+		var batch = new ArrayList<MarketCandleEntity>();
+		for (var s : series.values()) {
+			synchronized (s) {
+				for (var candle : s.dirty) {
+					batch.add(toEntity(s.instId, s.bar, candle));
+					candle.dirty = false;
+				}
+				s.dirty.clear();
+			}
+		}
+		if (batch.isEmpty()) {
+			return;
+		}
+		try {
+			repository.upsertAll(batch);
+		} catch (Exception e) {
+			log.warn("Failed to persist {} market candles: {}", batch.size(), e.toString());
+			// Mark them again so the next flush retries; bars changed meanwhile are already dirty.
+			for (var entity : batch) {
+				var s = series.get(key(entity.getInstId(), entity.getBar()));
+				if (s == null) continue;
+				synchronized (s) {
+					var candle = s.bars.get(entity.getOpenTime());
+					if (candle != null) s.markDirty(candle);
+				}
+			}
+		}
+	}
+
+	private Series series(String instId, String bar) {
+		var s = series.computeIfAbsent(key(instId, bar), k -> new Series(instId, bar, BARS.get(bar)));
+		if (!s.loaded) {
+			load(s);
+		}
+		return s;
+	}
+
+	/** Reads the newest persisted bars of a series the first time it is touched after startup. */
+	private void load(Series s) {
+		synchronized (s) {
+			if (s.loaded) {
+				return;
+			}
+			s.loaded = true;
+			if (!persist) {
+				return;
+			}
+			try {
+				var rows = repository.findByInstIdAndBarOrderByOpenTimeDesc(s.instId, s.bar, PageRequest.of(0, memoryBars));
+				for (var row : rows) {
+					s.bars.putIfAbsent(row.getOpenTime(), new Bar(row));
+				}
+			} catch (Exception e) {
+				log.warn("Failed to load market candles for {} {}: {}", s.instId, s.bar, e.toString());
+			}
+		}
+	}
+
+	private static long parseTs(String ts) {
+		if (ts == null) return -1;
+		try {
+			return Long.parseLong(ts.trim());
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	private static String key(String instId, String bar) {
+		return instId + "|" + bar;
+	}
+
+	private static CandlePoint toPoint(MarketCandleEntity row) {
+		return new CandlePoint(String.valueOf(row.getOpenTime()), row.getOpen(), row.getHigh(), row.getLow(), row.getClose(), row.getVolume());
+	}
+
+	private static MarketCandleEntity toEntity(String instId, String bar, Bar candle) {
+		var entity = new MarketCandleEntity();
+		entity.setInstId(instId);
+		entity.setBar(bar);
+		entity.setOpenTime(candle.openTime);
+		entity.setOpen(candle.open);
+		entity.setHigh(candle.high);
+		entity.setLow(candle.low);
+		entity.setClose(candle.close);
+		entity.setVolume(candle.volume);
+		return entity;
+	}
+
+	private static final class Series {
+		final String instId;
+		final String bar;
+		final long duration;
+		final long offset;
+		final TreeMap<Long, Bar> bars = new TreeMap<>();
+		final List<Bar> dirty = new ArrayList<>();
+		volatile boolean loaded;
+		long syncedAt = -1;
+
+		Series(String instId, String bar, long[] spec) {
+			this.instId = instId;
+			this.bar = bar;
+			this.duration = spec[0];
+			this.offset = spec[1];
+		}
+
+		long openTime(long tsMillis) {
+			return Math.floorDiv(tsMillis + offset, duration) * duration - offset;
+		}
+
+		void markDirty(Bar candle) {
+			if (!candle.dirty) {
+				candle.dirty = true;
+				dirty.add(candle);
+			}
+		}
+
+		void trim(int max) {
+			while (bars.size() > max) {
+				bars.pollFirstEntry();
+			}
+		}
+	}
+
+	private static final class Bar {
+		final long openTime;
+		double open;
+		double high;
+		double low;
+		double close;
+		double volume;
+		boolean dirty;
+
+		Bar(long openTime, double price) {
+			this.openTime = openTime;
+			this.open = price;
+			this.high = price;
+			this.low = price;
+			this.close = price;
+		}
+
+		Bar(MarketCandleEntity row) {
+			this.openTime = row.getOpenTime();
+			this.open = row.getOpen();
+			this.high = row.getHigh();
+			this.low = row.getLow();
+			this.close = row.getClose();
+			this.volume = row.getVolume();
+		}
+
+		CandlePoint toPoint() {
+			return new CandlePoint(String.valueOf(openTime), open, high, low, close, volume);
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package trenvus.Exchange.market;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-upstream circuit breaker. After {@code failureThreshold} consecutive failures the circuit opens
+ * and calls are rejected without touching the network. Once the open period elapses a single probe is
+ * let through (half-open); success closes the circuit, failure reopens it for twice as long, up to
+ * {@code maxOpen}.
+ */
+final class CircuitBreaker implements MeterBinder {
+	enum State { CLOSED, HALF_OPEN, OPEN }
+
+	private final String name;
+	private final int failureThreshold;
+	private final long baseOpenNanos;
+	private final long maxOpenNanos;
+	private final LongSupplier nanoTime;
+
+	private final LongAdder rejected = new LongAdder();
+	private final LongAdder opened = new LongAdder();
+
+	private State state = State.CLOSED;
+	private int consecutiveFailures;
+	private int consecutiveOpens;
+	private long openUntil;
+
+	CircuitBreaker(String name, int failureThreshold, Duration baseOpen, Duration maxOpen) {
+		this(name, failureThreshold, baseOpen, maxOpen, System::nanoTime);
+	}
+
+	CircuitBreaker(String name, int failureThreshold, Duration baseOpen, Duration maxOpen, LongSupplier nanoTime) {
+		this.name = name;
+		this.failureThreshold = Math.max(1, failureThreshold);
+		this.baseOpenNanos = baseOpen.toNanos();
+		this.maxOpenNanos = Math.max(baseOpenNanos, maxOpen.toNanos());
+		this.nanoTime = nanoTime;
+	}
+
+	/**
+	 * Whether a call may go out now. In the open state this admits exactly one probe once the open
+	 * period has elapsed; the caller must then report the outcome.
+	 */
+	synchronized boolean tryAcquire() {
+		switch (state) {
+			case CLOSED:
+				return true;
+			case OPEN:
+				if (nanoTime.getAsLong() - openUntil >= 0) {
+					state = State.HALF_OPEN;
+					return true;
+				}
+				break;
+			case HALF_OPEN:
+				break;
+		}
+		rejected.increment();
+		return false;
+	}
+
+	synchronized void onSuccess() {
+		state = State.CLOSED;
+		consecutiveFailures = 0;
+		consecutiveOpens = 0;
+	}
+
+	synchronized void onFailure() {
+		consecutiveFailures++;
+		if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+			long backoff = baseOpenNanos << Math.min(20, consecutiveOpens);
+			if (backoff <= 0 || backoff > maxOpenNanos) backoff = maxOpenNanos;
+			consecutiveOpens++;
+			state = State.OPEN;
+			openUntil = nanoTime.getAsLong() + backoff;
+			opened.increment();
+		}
+	}
+
+	synchronized State state() {
+		return state;
+	}
+
+	/** Time left before the next probe is admitted, or zero when the circuit is not open. */
+	synchronized Duration remainingOpen() {
+		if (state != State.OPEN) return Duration.ZERO;
+		return Duration.ofNanos(Math.max(0, openUntil - nanoTime.getAsLong()));
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("market.upstream.circuit.state", this, b -> b.state().ordinal())
+				.tag("upstream", name)
+				.description("0 = closed, 1 = half-open, 2 = open")
+				.register(registry);
+		Gauge.builder("market.upstream.circuit.open.remaining", this, b -> b.remainingOpen().toMillis())
+				.tag("upstream", name)
+				.baseUnit("milliseconds")
+				.register(registry);
+		FunctionCounter.builder("market.upstream.circuit.rejected", rejected, LongAdder::sum)
+				.tag("upstream", name)
+				.description("Calls short-circuited while the breaker was open")
+				.register(registry);
+		FunctionCounter.builder("market.upstream.circuit.opened", opened, LongAdder::sum)
+				.tag("upstream", name)
+				.register(registry);
+	}
+}
@@ -0,0 +1,106 @@
+package trenvus.Exchange.market;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import trenvus.Exchange.market.MarketDataService.DepthLevel;
+import trenvus.Exchange.market.MarketDataService.Level;
+import trenvus.Exchange.market.MarketDataService.OrderBook;
+import trenvus.Exchange.market.MarketDataService.OrderBookDepth;
+
+/**
+ * Groups order book levels into price buckets of a fixed tick for depth charts. Bids are floored and
+ * asks are ceiled to the tick, so a bucket never shows a better price than the book actually offers.
+ * Each bucket carries the running size and notional from the top of its side. Mid, spread and imbalance
+ * come from the best raw levels and the returned buckets respectively.
+ */
+final class DepthAggregator {
+	/** Absorbs float noise in {@code price / tick} so a price already on the grid stays in its own bucket. */
+	private static final double GRID_EPSILON = 1e-9;
+
+	private DepthAggregator() {}
+
+	/** {@code tick <= 0} keeps the raw levels and only adds the cumulative columns. */
+	static OrderBookDepth aggregate(OrderBook book, double tick, int depth) {
+		var asks = side(book.asks(), tick, depth, false);
+		var bids = side(book.bids(), tick, depth, true);
+
+		Double mid = null;
+		Double spread = null;
+		Double spreadBps = null;
+		if (!book.asks().isEmpty() && !book.bids().isEmpty()) {
+			double bestAsk = book.asks().get(0).price();
+			double bestBid = book.bids().get(0).price();
+			mid = (bestAsk + bestBid) / 2;
+			spread = bestAsk - bestBid;
+			spreadBps = mid > 0 ? spread / mid * 10_000 : null;
+		}
+		double bidSize = bids.isEmpty() ? 0 : bids.get(bids.size() - 1).cumulativeSize();
+		double askSize = asks.isEmpty() ? 0 : asks.get(asks.size() - 1).cumulativeSize();
+		Double imbalance = bidSize + askSize > 0 ? (bidSize - askSize) / (bidSize + askSize) : null;
+
+		return new OrderBookDepth(
+				book.instId(),
+				book.baseCurrency(),
+				book.quoteCurrency(),
+				tick > 0 ? tick : 0,
+				mid,
+				spread,
+				spreadBps,
+				imbalance,
+				asks,
+				bids,
+				book.ts()
+		);
+	}
+
+	private static List<DepthLevel> side(List<Level> levels, double tick, int depth, boolean bid) {
+		var out = new ArrayList<DepthLevel>(Math.min(depth, levels.size()));
+		var tickDecimal = tick > 0 ? BigDecimal.valueOf(tick) : null;
+		long bucket = 0;
+		double bucketSize = 0;
+		double cumulativeSize = 0;
+		double cumulativeNotional = 0;
+		for (var level : levels) {
+			double price = level.price();
+			double size = level.size();
+			if (!(size > 0) || !(price > 0)) {
+				continue;
+			}
+			if (tickDecimal == null) {
+				cumulativeSize += size;
+				cumulativeNotional += price * size;
+				out.add(new DepthLevel(price, size, cumulativeSize, cumulativeNotional));
+				if (out.size() == depth) {
+					return out;
+				}
+				continue;
+			}
+			long index = bucketIndex(price, tick, bid);
+			if (bucketSize > 0 && index != bucket) {
+				out.add(new DepthLevel(bucketPrice(tickDecimal, bucket), bucketSize, cumulativeSize, cumulativeNotional));
+				if (out.size() == depth) {
+					return out;
+				}
+				bucketSize = 0;
+			}
+			bucket = index;
+			bucketSize += size;
+			cumulativeSize += size;
+			cumulativeNotional += price * size;
+		}
+		if (bucketSize > 0) {
+			out.add(new DepthLevel(bucketPrice(tickDecimal, bucket), bucketSize, cumulativeSize, cumulativeNotional));
+		}
+		return out;
+	}
+
+	private static long bucketIndex(double price, double tick, boolean bid) {
+		double steps = price / tick;
+		return bid ? (long) Math.floor(steps + GRID_EPSILON) : (long) Math.ceil(steps - GRID_EPSILON);
+	}
+
+	private static double bucketPrice(BigDecimal tick, long bucket) {
+		return tick.multiply(BigDecimal.valueOf(bucket)).doubleValue();
+	}
+}
@@ -0,0 +1,138 @@
+package trenvus.Exchange.market;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import trenvus.Exchange.market.MarketDataService.OrderBookDepth;
+
+/**
+ * Bounded cache of aggregated depth keyed by {@code instId|tick|levels}. Within the TTL an entry is
+ * served without reading the book at all; after that it is still reused, and its age reset, as long as
+ * the book it was computed from carries the same {@code ts}. Ticks are client-chosen, so the least
+ * recently used entries are evicted once the cache grows past {@code maxEntries}.
+ */
+final class DepthCache implements MeterBinder {
+	private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+	private final int maxEntries;
+	private final long ttlNanos;
+	private final LongSupplier nanoTime;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	DepthCache(int maxEntries, Duration ttl) {
+		this(maxEntries, ttl, System::nanoTime);
+	}
+
+	DepthCache(int maxEntries, Duration ttl, LongSupplier nanoTime) {
+		this.maxEntries = Math.max(1, maxEntries);
+		this.ttlNanos = ttl.toNanos();
+		this.nanoTime = nanoTime;
+	}
+
+	/** The depth stored for the key while it is within the TTL, or {@code null}. */
+	OrderBookDepth getFresh(String key) {
+		var entry = entries.get(key);
+		if (entry == null) {
+			return null;
+		}
+		long now = nanoTime.getAsLong();
+		if (now - entry.storedAt >= ttlNanos) {
+			return null;
+		}
+		entry.lastAccess = now;
+		hits.increment();
+		return entry.depth;
+	}
+
+	/**
+	 * The depth stored for the key if it was computed from a book with the same {@code ts}, or
+	 * {@code null} on a miss; a reused entry starts a new TTL.
+	 */
+	OrderBookDepth getSameVersion(String key, String ts) {
+		var entry = entries.get(key);
+		if (entry == null || ts == null || !ts.equals(entry.ts)) {
+			misses.increment();
+			return null;
+		}
+		long now = nanoTime.getAsLong();
+		entries.replace(key, entry, new Entry(entry.depth, ts, now));
+		hits.increment();
+		return entry.depth;
+	}
+
+	void put(String key, String ts, OrderBookDepth depth) {
+		long now = nanoTime.getAsLong();
+		entries.put(key, new Entry(depth, ts, now));
+		if (entries.size() > maxEntries) {
+			evict();
+		}
+	}
+
+	Stats stats() {
+		return new Stats(entries.size(), hits.sum(), misses.sum(), evictions.sum());
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		Gauge.builder("market.cache.size", entries, ConcurrentHashMap::size)
+				.tag("cache", "depth")
+				.register(registry);
+		FunctionCounter.builder("market.cache.requests", hits, LongAdder::sum)
+				.tag("cache", "depth")
+				.tag("result", "hit")
+				.register(registry);
+		FunctionCounter.builder("market.cache.requests", misses, LongAdder::sum)
+				.tag("cache", "depth")
+				.tag("result", "miss")
+				.register(registry);
+		FunctionCounter.builder("market.cache.evictions", evictions, LongAdder::sum)
+				.tag("cache", "depth")
+				.register(registry);
+	}
+
+	private void evict() {
+		while (entries.size() > maxEntries) {
+			String oldestKey = null;
+			Entry oldest = null;
+			for (var e : entries.entrySet()) {
+				if (oldest == null || e.getValue().lastAccess < oldest.lastAccess) {
+					oldestKey = e.getKey();
+					oldest = e.getValue();
+				}
+			}
+			if (oldest == null) {
+				return;
+			}
+			if (entries.remove(oldestKey, oldest)) {
+				evictions.increment();
+			}
+		}
+	}
+
+	static String key(String instId, double tick, int levels) {
+		return instId + "|" + tick + "|" + levels;
+	}
+
+	record Stats(int size, long hits, long misses, long evictions) {}
+
+	private static final class Entry {
+		final OrderBookDepth depth;
+		final String ts;
+		final long storedAt;
+		volatile long lastAccess;
+
+		Entry(OrderBookDepth depth, String ts, long storedAt) {
+			this.depth = depth;
+			this.ts = ts;
+			this.storedAt = storedAt;
+			this.lastAccess = storedAt;
+		}
+	}
+}
@@ -0,0 +1,27 @@
+package trenvus.Exchange.market;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+/** Reads rates from a local JSON file in the same {@code {"base", "rates"}} shape, for offline setups and tests. */
+final class FileFxRateProvider implements FxRateProvider {
+	private final Path path;
+
+	FileFxRateProvider(Path path) {
+		this.path = path;
+	}
+
+	@Override
+	public String name() {
+		return "file:" + path.getFileName();
+	}
+
+	@Override
+	public Map<String, Double> usdRates() throws IOException {
+		try (var in = Files.newInputStream(path)) {
+			return MarketJsonParsers.parseFxRates(in);
+		}
+	}
+}
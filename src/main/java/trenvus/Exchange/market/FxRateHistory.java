@@ -0,0 +1,41 @@
+package trenvus.Exchange.market;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import trenvus.Exchange.market.MarketDataService.CandlePoint;
+
+/**
+ * Deterministic history for fiat pairs before their first recorded bar. Each bar's move is drawn from a
+ * generator seeded with the pair and the bar's open time only, and the walk runs backwards from the
+ * first recorded open, so every request and every node derives the same candles from the same data.
+ */
+final class FxRateHistory {
+	/** Largest move of a one-hour bar; other bar sizes scale with the square root of their length. */
+	private static final double HOURLY_STEP = 0.0025;
+
+	private FxRateHistory() {}
+
+	/**
+	 * {@code count} bars ending right before {@code firstOpenTime}, oldest first, whose last close is
+	 * {@code anchor}.
+	 */
+	static List<CandlePoint> backfill(String pair, long barMillis, long firstOpenTime, double anchor, int count) {
+		double maxStep = HOURLY_STEP * Math.sqrt(barMillis / 3_600_000.0);
+		long pairSeed = pair.hashCode() * 0x9E3779B97F4A7C15L;
+		var out = new ArrayList<CandlePoint>(count);
+		double close = anchor;
+		for (int k = 1; k <= count; k++) {
+			long openTime = firstOpenTime - k * barMillis;
+			var random = new SplittableRandom(pairSeed ^ openTime);
+			double open = close / (1 + (random.nextDouble() * 2 - 1) * maxStep);
+			double high = Math.max(open, close) * (1 + random.nextDouble() * maxStep / 2);
+			double low = Math.min(open, close) * (1 - random.nextDouble() * maxStep / 2);
+			out.add(new CandlePoint(String.valueOf(openTime), open, high, low, close, 0));
+			close = open;
+		}
+		Collections.reverse(out);
+		return out;
+	}
+}
@@ -0,0 +1,14 @@
+package trenvus.Exchange.market;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * A source of FX reference rates. Implementations return units of each currency per one USD and throw
+ * when the source cannot be read; {@link FxRateService} decides which source to fall back to.
+ */
+interface FxRateProvider {
+	String name();
+
+	Map<String, Double> usdRates() throws IOException;
+}
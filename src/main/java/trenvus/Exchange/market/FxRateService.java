@@ -0,0 +1,179 @@
+package trenvus.Exchange.market;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClient;
+
+/**
+ * FX reference rates for the fiat pairs. {@code MARKET_FX_SOURCES} lists the providers in order of
+ * preference: HTTP URLs, {@code file:} paths and {@code stub}. A refresh takes the first provider that
+ * answers and publishes its rates as one snapshot; when every source fails the previous snapshot stays.
+ * Refreshes run on a schedule when background refresh is enabled, otherwise on the first read after the
+ * refresh interval.
+ */
+@Service
+public class FxRateService {
+	private static final Logger log = LoggerFactory.getLogger(FxRateService.class);
+
+	private final List<FxRateProvider> providers;
+	private final Duration refreshInterval;
+	private final boolean scheduled;
+	private final ScheduledExecutorService scheduler;
+	private final MarketMetrics metrics;
+	private final SingleFlight<String, Snapshot> loads = new SingleFlight<>();
+
+	private volatile Snapshot snapshot = null;
+
+	public FxRateService(
+			MeterRegistry meterRegistry,
+			@Value("${MARKET_FX_SOURCES:https://api.frankfurter.app/latest?from=USD,https://open.er-api.com/v6/latest/USD,stub}") String sourcesRaw,
+			@Value("${MARKET_FX_REFRESH_SECONDS:600}") long refreshSeconds,
+			@Value("${MARKET_FETCH_TIMEOUT_MS:5000}") long fetchTimeoutMs,
+			@Value("${MARKET_REFRESH_ENABLED:true}") boolean scheduled
+	) {
+		this.providers = parseSources(sourcesRaw, Duration.ofMillis(Math.max(500, fetchTimeoutMs)));
+		this.refreshInterval = Duration.ofSeconds(Math.max(60, refreshSeconds));
+		this.scheduled = scheduled;
+		this.metrics = new MarketMetrics(meterRegistry);
+		this.scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+			var t = new Thread(r, "market-fx");
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	void startRefresh() {
+		if (!scheduled) {
+			return;
+		}
+		log.info("FX rate refresh enabled: sources={} interval={}", providers.stream().map(FxRateProvider::name).toList(), refreshInterval);
+		scheduler.scheduleWithFixedDelay(this::refreshQuietly, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	void shutdown() {
+		scheduler.shutdownNow();
+	}
+
+	/** Units of quote per one base for a {@code BASE-QUOTE} pair, or {@code null} when a currency is unknown. */
+	public Double rate(String pair) {
+		var parts = pair == null ? new String[0] : pair.trim().toUpperCase().split("-");
+		if (parts.length < 2) {
+			return null;
+		}
+		var current = current();
+		if (current == null) {
+			return null;
+		}
+		Double base = current.usdRates().get(parts[0]);
+		Double quote = current.usdRates().get(parts[1]);
+		if (base == null || quote == null) {
+			return null;
+		}
+		return quote / base;
+	}
+
+	/** When the rates now being served were fetched, or {@code null} before the first successful refresh. */
+	public Instant updatedAt() {
+		var current = snapshot;
+		return current == null ? null : current.fetchedAt();
+	}
+
+	/** Asks each provider in order and publishes the first non-empty answer. */
+	Snapshot refresh() {
+		for (var provider : providers) {
+			try {
+				var rates = metrics.upstream("fx", provider.name(), () -> {
+					try {
+						return provider.usdRates();
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+				if (rates != null && !rates.isEmpty()) {
+					var next = new Snapshot(Map.copyOf(rates), provider.name(), Instant.now());
+					snapshot = next;
+					return next;
+				}
+				log.warn("FX source {} returned no rates", provider.name());
+			} catch (Exception e) {
+				log.warn("FX source {} failed: {}", provider.name(), e.toString());
+			}
+		}
+		return snapshot;
+	}
+
+	private void refreshQuietly() {
+		try {
+			refresh();
+		} catch (Exception e) {
+			log.warn("FX rate refresh failed: {}", e.toString());
+		}
+	}
+
+	private Snapshot current() {
+		var current = snapshot;
+		if (current != null && (scheduled || current.fetchedAt().plus(refreshInterval).isAfter(Instant.now()))) {
+			return current;
+		}
+		return loads.load("rates", () -> {
+			var latest = snapshot;
+			if (latest != null && latest != current) {
+				return latest;
+			}
+			return refresh();
+		});
+	}
+
+	static List<FxRateProvider> parseSources(String raw, Duration timeout) {
+		var out = new ArrayList<FxRateProvider>();
+		RestClient client = null;
+		for (var source : (raw == null ? "" : raw).split(",")) {
+			var value = source.trim();
+			if (value.isEmpty()) {
+				continue;
+			}
+			if (value.equalsIgnoreCase("stub")) {
+				out.add(new StubFxRateProvider());
+			} else if (value.startsWith("file:")) {
+				out.add(new FileFxRateProvider(Path.of(value.substring("file:".length()))));
+			} else if (value.startsWith("http://") || value.startsWith("https://")) {
+				if (client == null) {
+					var requestFactory = new JdkClientHttpRequestFactory(HttpClient.newBuilder().connectTimeout(timeout).build());
+					requestFactory.setReadTimeout(timeout);
+					client = RestClient.builder().requestFactory(requestFactory).build();
+				}
+				out.add(new HttpFxRateProvider(client, URI.create(value)));
+			} else {
+				throw new IllegalArgumentException("Unsupported MARKET_FX_SOURCES entry: " + value);
+			}
+		}
+		if (out.isEmpty()) {
+			out.add(new StubFxRateProvider());
+		}
+		return out;
+	}
+
+	record Snapshot(Map<String, Double> usdRates, String source, Instant fetchedAt) {}
+}
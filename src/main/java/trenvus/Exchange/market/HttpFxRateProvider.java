@@ -0,0 +1,35 @@
+package trenvus.Exchange.market;
+
+import java.net.URI;
+import java.util.Map;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClient;
+
+/** Reads rates from an HTTP endpoint serving the {@code {"base", "rates"}} document (Frankfurter, open.er-api.com). */
+final class HttpFxRateProvider implements FxRateProvider {
+	private final RestClient client;
+	private final URI uri;
+
+	HttpFxRateProvider(RestClient client, URI uri) {
+		this.client = client;
+		this.uri = uri;
+	}
+
+	@Override
+	public String name() {
+		return uri.getHost();
+	}
+
+	@Override
+	public Map<String, Double> usdRates() {
+		return client.get()
+				.uri(uri)
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange((request, response) -> {
+					if (response.getStatusCode().isError()) {
+						throw new MarketMetrics.UpstreamStatusException("FX rates request to " + uri.getHost() + " failed: status=" + response.getStatusCode().value());
+					}
+					return MarketJsonParsers.parseFxRates(response.getBody());
+				});
+	}
+}
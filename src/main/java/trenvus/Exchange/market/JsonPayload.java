@@ -0,0 +1,121 @@
+package trenvus.Exchange.market;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A response body serialized once and served many times: the JSON bytes, a gzip copy when the body is
+ * large enough to be worth compressing, and strong ETags for both representations. The tag is a hash of
+ * the content, so every replica hands out the same tag for the same snapshot and a poller only gets a
+ * body back when the data actually changed.
+ */
+final class JsonPayload {
+	static final int GZIP_MIN_BYTES = 1024;
+
+	private final byte[] json;
+	private final byte[] gzip;
+	private final String tag;
+
+	private JsonPayload(byte[] json, byte[] gzip, String tag) {
+		this.json = json;
+		this.gzip = gzip;
+		this.tag = tag;
+	}
+
+	static JsonPayload of(byte[] json) {
+		return new JsonPayload(json, json.length >= GZIP_MIN_BYTES ? gzip(json) : null, hash(json));
+	}
+
+	byte[] json() {
+		return json;
+	}
+
+	/** The gzip-encoded body, or {@code null} when the payload is too small to bother. */
+	byte[] gzip() {
+		return gzip;
+	}
+
+	String etag() {
+		return "\"" + tag + "\"";
+	}
+
+	String gzipEtag() {
+		return "\"" + tag + "-gzip\"";
+	}
+
+	/**
+	 * Whether an {@code If-None-Match} header names this payload. Both encodings carry the same content,
+	 * so either tag counts, and weak tags are compared by their opaque part as RFC 9110 requires.
+	 */
+	boolean matches(String ifNoneMatch) {
+		if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+			return false;
+		}
+		for (var candidate : ifNoneMatch.split(",")) {
+			var value = candidate.trim();
+			if (value.equals("*")) {
+				return true;
+			}
+			if (value.startsWith("W/")) {
+				value = value.substring(2);
+			}
+			if (value.equals(etag()) || value.equals(gzipEtag())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/** Whether an {@code Accept-Encoding} header allows gzip, i.e. lists it (or {@code *}) without {@code q=0}. */
+	static boolean acceptsGzip(String acceptEncoding) {
+		if (acceptEncoding == null) {
+			return false;
+		}
+		for (var candidate : acceptEncoding.split(",")) {
+			var parts = candidate.split(";");
+			var coding = parts[0].trim();
+			if (!coding.equalsIgnoreCase("gzip") && !coding.equals("*")) {
+				continue;
+			}
+			boolean rejected = false;
+			for (int i = 1; i < parts.length; i++) {
+				var param = parts[i].trim().replace(" ", "");
+				if (param.startsWith("q=")) {
+					try {
+						rejected = Double.parseDouble(param.substring(2)) <= 0;
+					} catch (NumberFormatException e) {
+						rejected = true;
+					}
+				}
+			}
+			if (!rejected) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static byte[] gzip(byte[] json) {
+		var out = new ByteArrayOutputStream(json.length / 4 + 64);
+		try (var gz = new GZIPOutputStream(out)) {
+			gz.write(json);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return out.toByteArray();
+	}
+
+	private static String hash(byte[] json) {
+		try {
+			var digest = MessageDigest.getInstance("SHA-256").digest(json);
+			return HexFormat.of().formatHex(digest, 0, 16);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,323 @@
+package trenvus.Exchange.market;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.zip.CRC32;
+import trenvus.Exchange.market.MarketDataService.Level;
+import trenvus.Exchange.market.MarketDataService.OrderBook;
+
+/**
+ * Incremental L2 order book for one instrument. Each side keeps its levels sorted on primitive arrays
+ * (best price first), so applying an update is a binary search plus an in-place shift and allocates
+ * nothing once the arrays have grown to the book's working depth.
+ *
+ * <p>Prices and sizes received as text are also kept as packed decimals (mantissa and scale in one
+ * {@code long}) so the OKX checksum can be recomputed over the exact upstream strings. All methods
+ * synchronize on the book; writers that apply a multi-level message hold the monitor for the whole
+ * message so readers never observe a half-applied update.
+ */
+final class L2Book {
+	/** Marker for levels that were set from a {@code double} and have no exact text representation. */
+	static final long NO_TEXT = Long.MIN_VALUE;
+
+	private static final int CHECKSUM_LEVELS = 25;
+	private static final int VIEW_DEPTH = 50;
+	private static final double[] POW10 = {
+			1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9,
+			1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18
+	};
+
+	private final String instId;
+	private final String baseCurrency;
+	private final String quoteCurrency;
+	private final Side bids = new Side(true);
+	private final Side asks = new Side(false);
+	private final CRC32 crc = new CRC32();
+	private final byte[] checksumText = new byte[CHECKSUM_LEVELS * 4 * 24];
+
+	private long version;
+	private long seqId = -1;
+	private String ts;
+	private long updatedAtNanos;
+
+	private OrderBook view;
+	private long viewVersion = -1;
+
+	L2Book(String instId) {
+		this.instId = instId;
+		var currencies = MarketDataService.parseInstIdCurrencies(instId);
+		this.baseCurrency = currencies.baseCurrency();
+		this.quoteCurrency = currencies.quoteCurrency();
+	}
+
+	String instId() {
+		return instId;
+	}
+
+	/** Drops every level and the sequence number, e.g. before a snapshot or after losing sync. */
+	synchronized void clear() {
+		bids.count = 0;
+		asks.count = 0;
+		seqId = -1;
+		version++;
+	}
+
+	/** Sets one level from text-backed packed decimals (see {@link #parseDecimal}); a zero size removes it. */
+	synchronized void set(boolean bid, long price, long size) {
+		(bid ? bids : asks).upsert(toDouble(price), price, toDouble(size), size);
+	}
+
+	/** Sets one level from plain doubles; books fed this way cannot be checksummed. */
+	synchronized void set(boolean bid, double price, double size) {
+		(bid ? bids : asks).upsert(price, NO_TEXT, size, NO_TEXT);
+	}
+
+	/** Publishes the levels applied since the last commit as a new version. */
+	synchronized void commit(String ts, long seqId) {
+		this.ts = ts;
+		this.seqId = seqId;
+		this.updatedAtNanos = System.nanoTime();
+		version++;
+	}
+
+	synchronized long version() {
+		return version;
+	}
+
+	synchronized long seqId() {
+		return seqId;
+	}
+
+	synchronized long updatedAtNanos() {
+		return updatedAtNanos;
+	}
+
+	synchronized int depth(boolean bid) {
+		return (bid ? bids : asks).count;
+	}
+
+	synchronized boolean isEmpty() {
+		return bids.count == 0 && asks.count == 0;
+	}
+
+	/**
+	 * OKX book checksum: CRC32 over {@code bidPx:bidSz:askPx:askSz:...} for the best 25 levels of each
+	 * side, interleaved, with the shorter side simply omitted past its end. Returns {@code false} when a
+	 * level has no text representation.
+	 */
+	synchronized boolean checksumMatches(int expected) {
+		int len = 0;
+		int levels = Math.min(CHECKSUM_LEVELS, Math.max(bids.count, asks.count));
+		for (int i = 0; i < levels; i++) {
+			if (i < bids.count) {
+				if (bids.priceText[i] == NO_TEXT || bids.sizeText[i] == NO_TEXT) return false;
+				if (len > 0) checksumText[len++] = ':';
+				len = writeDecimal(bids.priceText[i], checksumText, len);
+				checksumText[len++] = ':';
+				len = writeDecimal(bids.sizeText[i], checksumText, len);
+			}
+			if (i < asks.count) {
+				if (asks.priceText[i] == NO_TEXT || asks.sizeText[i] == NO_TEXT) return false;
+				if (len > 0) checksumText[len++] = ':';
+				len = writeDecimal(asks.priceText[i], checksumText, len);
+				checksumText[len++] = ':';
+				len = writeDecimal(asks.sizeText[i], checksumText, len);
+			}
+		}
+		crc.reset();
+		crc.update(checksumText, 0, len);
+		return (int) crc.getValue() == expected;
+	}
+
+	/** Walks the best {@code n} levels of one side without copying them. */
+	synchronized void forEachLevel(boolean bid, int n, LevelVisitor visitor) {
+		var side = bid ? bids : asks;
+		int limit = Math.min(n, side.count);
+		for (int i = 0; i < limit; i++) {
+			visitor.level(i, side.price[i], side.size[i]);
+		}
+	}
+
+	/**
+	 * Top {@code n} levels of each side. The view is built once per book version from the primitive
+	 * arrays and shared by every reader until the next update; {@code Level} records are only created
+	 * when an element is read.
+	 */
+	synchronized OrderBook top(int n) {
+		if (viewVersion != version || view == null) {
+			view = new OrderBook(instId, baseCurrency, quoteCurrency, asks.view(VIEW_DEPTH), bids.view(VIEW_DEPTH), ts);
+			viewVersion = version;
+		}
+		if (n >= VIEW_DEPTH) {
+			return view;
+		}
+		var a = view.asks();
+		var b = view.bids();
+		return new OrderBook(instId, baseCurrency, quoteCurrency,
+				a.subList(0, Math.min(n, a.size())), b.subList(0, Math.min(n, b.size())), ts);
+	}
+
+	@FunctionalInterface
+	interface LevelVisitor {
+		void level(int index, double price, double size);
+	}
+
+	/**
+	 * Parses a plain decimal ({@code 123}, {@code 0.0070}) into a packed decimal without allocating.
+	 * Returns {@link #NO_TEXT} for signs, exponents or more digits than fit in the mantissa.
+	 */
+	static long parseDecimal(char[] buf, int off, int len) {
+		if (len == 0) return NO_TEXT;
+		long mantissa = 0;
+		int scale = -1;
+		int digits = 0;
+		for (int i = off, end = off + len; i < end; i++) {
+			char c = buf[i];
+			if (c == '.') {
+				if (scale >= 0) return NO_TEXT;
+				scale = 0;
+				continue;
+			}
+			if (c < '0' || c > '9') return NO_TEXT;
+			if (++digits > 16) return NO_TEXT;
+			mantissa = mantissa * 10 + (c - '0');
+			if (scale >= 0) scale++;
+		}
+		if (digits == 0 || scale > 18) return NO_TEXT;
+		return (mantissa << 8) | Math.max(0, scale);
+	}
+
+	static double toDouble(long decimal) {
+		return (decimal >>> 8) / POW10[(int) (decimal & 0xFF)];
+	}
+
+	private static int writeDecimal(long decimal, byte[] out, int pos) {
+		long mantissa = decimal >>> 8;
+		int scale = (int) (decimal & 0xFF);
+		int digits = 1;
+		for (long m = mantissa; m >= 10; m /= 10) digits++;
+		int width = Math.max(digits, scale + 1);
+		int end = pos + width + (scale > 0 ? 1 : 0);
+		int i = end;
+		for (int written = 0; written < width; written++) {
+			if (scale > 0 && written == scale) {
+				out[--i] = '.';
+			}
+			out[--i] = (byte) ('0' + (mantissa % 10));
+			mantissa /= 10;
+		}
+		return end;
+	}
+
+	static String formatDecimal(long decimal) {
+		var buf = new byte[24];
+		return new String(buf, 0, writeDecimal(decimal, buf, 0), StandardCharsets.US_ASCII);
+	}
+
+	private static final class Side {
+		private final boolean descending;
+		double[] price = new double[64];
+		double[] size = new double[64];
+		long[] priceText = new long[64];
+		long[] sizeText = new long[64];
+		int count;
+
+		Side(boolean descending) {
+			this.descending = descending;
+		}
+
+		void upsert(double px, long pxText, double sz, long szText) {
+			int idx = search(px);
+			if (idx >= 0) {
+				if (sz <= 0) {
+					remove(idx);
+				} else {
+					size[idx] = sz;
+					priceText[idx] = pxText;
+					sizeText[idx] = szText;
+				}
+				return;
+			}
+			if (sz <= 0) {
+				return;
+			}
+			int at = -(idx + 1);
+			if (count == price.length) {
+				grow();
+			}
+			int tail = count - at;
+			if (tail > 0) {
+				System.arraycopy(price, at, price, at + 1, tail);
+				System.arraycopy(size, at, size, at + 1, tail);
+				System.arraycopy(priceText, at, priceText, at + 1, tail);
+				System.arraycopy(sizeText, at, sizeText, at + 1, tail);
+			}
+			price[at] = px;
+			size[at] = sz;
+			priceText[at] = pxText;
+			sizeText[at] = szText;
+			count++;
+		}
+
+		private void remove(int idx) {
+			int tail = count - idx - 1;
+			if (tail > 0) {
+				System.arraycopy(price, idx + 1, price, idx, tail);
+				System.arraycopy(size, idx + 1, size, idx, tail);
+				System.arraycopy(priceText, idx + 1, priceText, idx, tail);
+				System.arraycopy(sizeText, idx + 1, sizeText, idx, tail);
+			}
+			count--;
+		}
+
+		/** Binary search in book order; returns the index, or {@code -(insertionPoint + 1)}. */
+		private int search(double px) {
+			int lo = 0, hi = count - 1;
+			while (lo <= hi) {
+				int mid = (lo + hi) >>> 1;
+				int cmp = Double.compare(price[mid], px);
+				if (descending) cmp = -cmp;
+				if (cmp < 0) lo = mid + 1;
+				else if (cmp > 0) hi = mid - 1;
+				else return mid;
+			}
+			return -(lo + 1);
+		}
+
+		private void grow() {
+			int capacity = price.length * 2;
+			price = Arrays.copyOf(price, capacity);
+			size = Arrays.copyOf(size, capacity);
+			priceText = Arrays.copyOf(priceText, capacity);
+			sizeText = Arrays.copyOf(sizeText, capacity);
+		}
+
+		List<Level> view(int n) {
+			int len = Math.min(n, count);
+			return new LevelList(Arrays.copyOf(price, len), Arrays.copyOf(size, len));
+		}
+	}
+
+	private static final class LevelList extends AbstractList<Level> implements RandomAccess {
+		private final double[] price;
+		private final double[] size;
+
+		LevelList(double[] price, double[] size) {
+			this.price = price;
+			this.size = size;
+		}
+
+		@Override
+		public Level get(int index) {
+			return new Level(price[index], size[index]);
+		}
+
+		@Override
+		public int size() {
+			return price.length;
+		}
+	}
+}
@@ -0,0 +1,132 @@
+package trenvus.Exchange.market;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import java.io.Serializable;
+import java.util.Objects;
+
+@Entity
+@Table(name = "market_candles")
+@IdClass(MarketCandleEntity.Key.class)
+public class MarketCandleEntity {
+	@Id
+	@Column(name = "inst_id", nullable = false, length = 32)
+	private String instId;
+
+	@Id
+	@Column(nullable = false, length = 8)
+	private String bar;
+
+	@Id
+	@Column(name = "open_time", nullable = false)
+	private long openTime;
+
+	@Column(nullable = false)
+	private double open;
+
+	@Column(nullable = false)
+	private double high;
+
+	@Column(nullable = false)
+	private double low;
+
+	@Column(nullable = false)
+	private double close;
+
+	@Column(nullable = false)
+	private double volume;
+
+	public String getInstId() {
+		return instId;
+	}
+
+	public void setInstId(String instId) {
+		this.instId = instId;
+	}
+
+	public String getBar() {
+		return bar;
+	}
+
+	public void setBar(String bar) {
+		this.bar = bar;
+	}
+
+	public long getOpenTime() {
+		return openTime;
+	}
+
+	public void setOpenTime(long openTime) {
+		this.openTime = openTime;
+	}
+
+	public double getOpen() {
+		return open;
+	}
+
+	public void setOpen(double open) {
+		this.open = open;
+	}
+
+	public double getHigh() {
+		return high;
+	}
+
+	public void setHigh(double high) {
+		this.high = high;
+	}
+
+	public double getLow() {
+		return low;
+	}
+
+	public void setLow(double low) {
+		this.low = low;
+	}
+
+	public double getClose() {
+		return close;
+	}
+
+	public void setClose(double close) {
+		this.close = close;
+	}
+
+	public double getVolume() {
+		return volume;
+	}
+
+	public void setVolume(double volume) {
+		this.volume = volume;
+	}
+
+	public static class Key implements Serializable {
+		private String instId;
+		private String bar;
+		private long openTime;
+
+		public Key() {
+		}
+
+		public Key(String instId, String bar, long openTime) {
+			this.instId = instId;
+			this.bar = bar;
+			this.openTime = openTime;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof Key other)) return false;
+			return openTime == other.openTime && Objects.equals(instId, other.instId) && Objects.equals(bar, other.bar);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(instId, bar, openTime);
+		}
+	}
+}
@@ -0,0 +1,11 @@
+package trenvus.Exchange.market;
+
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface MarketCandleRepository extends JpaRepository<MarketCandleEntity, MarketCandleEntity.Key>, MarketCandleUpserts {
+	List<MarketCandleEntity> findByInstIdAndBarOrderByOpenTimeDesc(String instId, String bar, Pageable pageable);
+
+	List<MarketCandleEntity> findByInstIdAndBarAndOpenTimeBetweenOrderByOpenTimeAsc(String instId, String bar, long from, long to, Pageable pageable);
+}
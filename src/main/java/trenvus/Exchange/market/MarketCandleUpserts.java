@@ -0,0 +1,9 @@
+package trenvus.Exchange.market;
+
+import java.util.List;
+
+/** Bulk writes for {@link MarketCandleRepository} that JPA's merge-based {@code saveAll} cannot do cheaply. */
+public interface MarketCandleUpserts {
+	/** Inserts or overwrites each candle by {@code (inst_id, bar, open_time)} in one JDBC batch. */
+	void upsertAll(List<MarketCandleEntity> candles);
+}
@@ -0,0 +1,38 @@
+package trenvus.Exchange.market;
+
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * The composite key makes every {@code save} a merge, i.e. a SELECT before each INSERT or UPDATE. Candles
+ * are plain overwrites, so they are written with one {@code ON CONFLICT} upsert per row in a single batch,
+ * which also lets replicas flush the same bar without a unique violation.
+ */
+class MarketCandleUpsertsImpl implements MarketCandleUpserts {
+	private static final String UPSERT = """
+			INSERT INTO market_candles (inst_id, bar, open_time, open, high, low, close, volume)
+			VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+			ON CONFLICT (inst_id, bar, open_time) DO UPDATE SET
+				open = EXCLUDED.open, high = EXCLUDED.high, low = EXCLUDED.low,
+				close = EXCLUDED.close, volume = EXCLUDED.volume""";
+
+	private final JdbcTemplate jdbc;
+
+	MarketCandleUpsertsImpl(JdbcTemplate jdbc) {
+		this.jdbc = jdbc;
+	}
+
+	@Override
+	public void upsertAll(List<MarketCandleEntity> candles) {
+		jdbc.batchUpdate(UPSERT, candles, candles.size(), (ps, c) -> {
+			ps.setString(1, c.getInstId());
+			ps.setString(2, c.getBar());
+			ps.setLong(3, c.getOpenTime());
+			ps.setDouble(4, c.getOpen());
+			ps.setDouble(5, c.getHigh());
+			ps.setDouble(6, c.getLow());
+			ps.setDouble(7, c.getClose());
+			ps.setDouble(8, c.getVolume());
+		});
+	}
+}
@@ -0,0 +1,231 @@
+package trenvus.Exchange.market;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Coordinates replicas that share one Postgres database so only one of them polls the upstreams. Each
+ * replica holds one dedicated session for as long as it runs, opened from the datasource URL and
+ * credentials outside the connection pool, so it never takes a pooled connection from requests. On it,
+ * the replica tries {@code pg_try_advisory_lock} and {@code LISTEN}s on {@link #CHANNEL}. The lock
+ * holder is the leader: it refreshes the snapshots and publishes them to {@code market_snapshots}
+ * followed by a {@code pg_notify} carrying the row's version ({@code name:updatedAtMillis}); it may also
+ * re-announce the current version without writing. Followers make no upstream calls; they load the
+ * shared row when a notification carries a version they do not hold, and re-read it every
+ * {@value #RESYNC_POLLS} polls without a notification, since one can be lost after the row was saved.
+ * The lock is tied to the session, so when the leader stops or its connection drops, the next follower
+ * to retry takes over. The connection is validated on every poll and has a network timeout, so a
+ * half-open socket is noticed within one poll instead of blocking the thread or keeping a stale leader
+ * in charge.
+ */
+final class MarketCluster {
+	private static final Logger log = LoggerFactory.getLogger(MarketCluster.class);
+	static final String CHANNEL = "market_snapshots";
+	private static final long MAX_RECONNECT_DELAY_MS = 30_000;
+	private static final int VALIDATION_TIMEOUT_SECONDS = 5;
+	static final int RESYNC_POLLS = 6;
+
+	interface ConnectionFactory {
+		Connection open() throws SQLException;
+	}
+
+	interface Listener {
+		/**
+		 * A snapshot row was published by the leader; called on the cluster thread of followers only.
+		 * {@code version} is the row's {@code updated_at} in epoch millis, or -1 for a periodic re-read.
+		 */
+		void snapshotPublished(String name, long version);
+	}
+
+	private final ConnectionFactory connections;
+	private final MarketSnapshotRepository snapshots;
+	private final long lockKey;
+	private final Duration pollInterval;
+	private final Listener listener;
+	private final Thread thread;
+
+	private Connection connection;
+	private volatile boolean running;
+	private volatile boolean leader;
+	private boolean synced;
+	private long lastSyncNanos;
+
+	MarketCluster(ConnectionFactory connections, MarketSnapshotRepository snapshots, long lockKey, Duration pollInterval, Listener listener) {
+		this.connections = connections;
+		this.snapshots = snapshots;
+		this.lockKey = lockKey;
+		this.pollInterval = pollInterval;
+		this.listener = listener;
+		this.thread = new Thread(this::run, "market-cluster");
+		this.thread.setDaemon(true);
+	}
+
+	void bindTo(MeterRegistry registry) {
+		Gauge.builder("market.cluster.leader", this, c -> c.leader ? 1 : 0).register(registry);
+	}
+
+	void start() {
+		if (running) {
+			return;
+		}
+		running = true;
+		thread.start();
+	}
+
+	/** Releasing the advisory lock on the way out lets another replica take over immediately. */
+	void stop() {
+		running = false;
+		thread.interrupt();
+		try {
+			thread.join(pollInterval.toMillis() + 1000);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (thread.isAlive()) {
+			log.warn("Market cluster thread did not stop; the advisory lock is released when its session ends");
+		}
+	}
+
+	boolean isLeader() {
+		return leader;
+	}
+
+	/**
+	 * Writes the row and then notifies the followers. The two run in separate transactions so the
+	 * notification is only delivered once the row is visible.
+	 */
+	void publish(MarketSnapshotEntity row) {
+		snapshots.save(row);
+		announce(row.getName(), row.getUpdatedAt());
+	}
+
+	/** Notifies the followers of the row version already written, without touching the row. */
+	void announce(String name, Instant version) {
+		snapshots.notifyChannel(CHANNEL, name + ":" + version.toEpochMilli());
+	}
+
+	private void run() {
+		int failures = 0;
+		while (running) {
+			try {
+				if (connection == null && !connect()) {
+					break;
+				}
+				if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+					throw new SQLException("connection is no longer valid");
+				}
+				if (!leader) {
+					tryLead();
+				}
+				var notifications = connection.unwrap(PGConnection.class).getNotifications((int) pollInterval.toMillis());
+				if (notifications != null && !leader) {
+					String last = null;
+					for (var notification : notifications) {
+						if (CHANNEL.equals(notification.getName())) {
+							last = notification.getParameter();
+						}
+					}
+					// A burst of notifications only needs the newest row.
+					if (last != null) {
+						int sep = last.lastIndexOf(':');
+						sync(sep < 0 ? last : last.substring(0, sep), sep < 0 ? -1 : parseVersion(last.substring(sep + 1)));
+					}
+				}
+				if (!leader && System.nanoTime() - lastSyncNanos >= pollInterval.toNanos() * RESYNC_POLLS) {
+					sync(MarketDataService.CHECKPOINT_NAME, -1);
+				}
+				failures = 0;
+			} catch (Exception e) {
+				if (!running) {
+					break;
+				}
+				failures++;
+				log.warn("Market cluster connection failed (attempt {}): {}", failures, e.toString());
+				disconnect();
+				sleep(Math.min(MAX_RECONNECT_DELAY_MS, pollInterval.toMillis() * failures));
+			}
+		}
+		disconnect();
+	}
+
+	private boolean connect() throws SQLException {
+		var opened = connections.open();
+		if (!opened.isWrapperFor(PGConnection.class)) {
+			opened.close();
+			running = false;
+			log.warn("MARKET_CLUSTER_ENABLED needs PostgreSQL; market data stays local to this replica");
+			return false;
+		}
+		opened.setAutoCommit(true);
+		// getNotifications bounds its own wait; this bounds every other round trip on the session
+		opened.setNetworkTimeout(Runnable::run, (int) pollInterval.toMillis() + VALIDATION_TIMEOUT_SECONDS * 1000);
+		try (var statement = opened.createStatement()) {
+			statement.execute("LISTEN " + CHANNEL);
+		}
+		connection = opened;
+		return true;
+	}
+
+	private void tryLead() throws SQLException {
+		try (var statement = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+			statement.setLong(1, lockKey);
+			try (var rs = statement.executeQuery()) {
+				leader = rs.next() && rs.getBoolean(1);
+			}
+		}
+		if (leader) {
+			log.info("Market cluster: this replica is now the leader (lock {})", lockKey);
+		} else if (!synced) {
+			// First pass as a follower: pick up whatever the leader published before we started listening.
+			synced = true;
+			sync(MarketDataService.CHECKPOINT_NAME, -1);
+		}
+	}
+
+	private void sync(String name, long version) {
+		lastSyncNanos = System.nanoTime();
+		listener.snapshotPublished(name, version);
+	}
+
+	private static long parseVersion(String version) {
+		try {
+			return Long.parseLong(version);
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	private void disconnect() {
+		if (leader) {
+			log.info("Market cluster: leadership released");
+		}
+		leader = false;
+		synced = false;
+		var current = connection;
+		connection = null;
+		if (current == null) {
+			return;
+		}
+		// Ending the session releases the advisory lock and the LISTEN
+		try {
+			current.close();
+		} catch (SQLException e) {
+			log.debug("Closing market cluster connection failed: {}", e.toString());
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -1,34 +1,67 @@
 package trenvus.Exchange.market;
 
 import java.util.List;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/market")
 public class MarketController {
+	/** {@code true} while the tickers come from the startup checkpoint or the refresher has fallen behind. */
+	static final String STALE_HEADER = "X-Market-Data-Stale";
+
 	private final MarketDataService marketDataService;
+	private final MarketStreamService marketStreamService;
 
-	public MarketController(MarketDataService marketDataService) {
+	public MarketController(MarketDataService marketDataService, MarketStreamService marketStreamService) {
 		this.marketDataService = marketDataService;
+		this.marketStreamService = marketStreamService;
+	}
+
+	@GetMapping(path = "/tickers", produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<byte[]> getTickers(
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+	) {
+		return payloadResponse(marketDataService.getAllTickersPayload(), ifNoneMatch, acceptEncoding);
 	}
 
-	@GetMapping("/tickers")
-	public ResponseEntity<List<MarketDataService.MarketTicker>> getTickers() {
-		return ResponseEntity.ok(marketDataService.getAllTickers());
+	@GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter stream() {
+		return marketStreamService.subscribe();
 	}
 
-	@GetMapping("/tickers/crypto")
-	public ResponseEntity<List<MarketDataService.MarketTicker>> getCryptoTickers() {
-		return ResponseEntity.ok(marketDataService.getCryptoTickers());
+	@GetMapping(path = "/tickers/crypto", produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<byte[]> getCryptoTickers(
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+	) {
+		return payloadResponse(marketDataService.getCryptoTickersPayload(), ifNoneMatch, acceptEncoding);
 	}
 
-	@GetMapping("/tickers/fiat")
-	public ResponseEntity<List<MarketDataService.MarketTicker>> getFiatTickers() {
-		return ResponseEntity.ok(marketDataService.getFiatTickers());
+	@GetMapping(path = "/tickers/fiat", produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<byte[]> getFiatTickers(
+			@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+	) {
+		return payloadResponse(marketDataService.getFiatTickersPayload(), ifNoneMatch, acceptEncoding);
+	}
+
+	@GetMapping("/rates")
+	public ResponseEntity<List<MarketDataService.CrossRate>> getRates(
+			@RequestParam(required = false) List<String> pairs,
+			@RequestParam(required = false) List<String> currencies
+	) {
+		return ResponseEntity.ok(marketDataService.getCrossRates(pairs, currencies));
 	}
 
 	@GetMapping("/orderbook")
@@ -39,12 +72,52 @@ public class MarketController {
 		return ResponseEntity.ok(marketDataService.getOrderBook(instId, size));
 	}
 
+	@GetMapping("/orderbook/depth")
+	public ResponseEntity<MarketDataService.OrderBookDepth> getOrderBookDepth(
+			@RequestParam String instId,
+			@RequestParam(required = false) Double tick,
+			@RequestParam(defaultValue = "20") int depth
+	) {
+		return ResponseEntity.ok(marketDataService.getOrderBookDepth(instId, tick, depth));
+	}
+
 	@GetMapping("/candles")
 	public ResponseEntity<List<MarketDataService.CandlePoint>> getCandles(
 			@RequestParam String instId,
 			@RequestParam(defaultValue = "1H") String bar,
-			@RequestParam(defaultValue = "24") int limit
+			@RequestParam(defaultValue = "24") int limit,
+			@RequestParam(required = false) Long from,
+			@RequestParam(required = false) Long to
 	) {
-		return ResponseEntity.ok(marketDataService.getCandles(instId, bar, limit));
+		return ResponseEntity.ok(marketDataService.getCandles(instId, bar, limit, from, to));
+	}
+
+	/**
+	 * Writes a pre-serialized snapshot as-is. A matching {@code If-None-Match} gets an empty 304; otherwise
+	 * the stored gzip body is sent when the client accepts it, which also keeps the server's own response
+	 * compression from compressing the same bytes again on every request.
+	 */
+	private static ResponseEntity<byte[]> payloadResponse(MarketDataService.SnapshotPayload snapshot, String ifNoneMatch, String acceptEncoding) {
+		var payload = snapshot.payload();
+		boolean gzip = payload.gzip() != null && JsonPayload.acceptsGzip(acceptEncoding);
+		var etag = gzip ? payload.gzipEtag() : payload.etag();
+		if (payload.matches(ifNoneMatch)) {
+			return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+					.eTag(etag)
+					.cacheControl(CacheControl.noCache())
+					.varyBy(HttpHeaders.ACCEPT_ENCODING)
+					.header(STALE_HEADER, String.valueOf(snapshot.stale()))
+					.build();
+		}
+		var response = ResponseEntity.ok()
+				.eTag(etag)
+				.cacheControl(CacheControl.noCache())
+				.varyBy(HttpHeaders.ACCEPT_ENCODING)
+				.header(STALE_HEADER, String.valueOf(snapshot.stale()))
+				.contentType(MediaType.APPLICATION_JSON);
+		if (gzip) {
+			return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(payload.gzip());
+		}
+		return response.body(payload.json());
 	}
 }
@@ -1,102 +1,479 @@
 package trenvus.Exchange.market;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
+import java.net.URI;
 import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.sql.DriverManager;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedHashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.function.Supplier;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.MediaType;
 import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestClient;
 
 @Service
 public class MarketDataService {
 	private static final org.slf4j.Logger log = org.slf4j.LoggerFactory.getLogger(MarketDataService.class);
+	private static final int MAX_CANDLES = 100;
+	private static final int CANDLE_BACKFILL = 300;
+	private static final int SYNTHETIC_CANDLES = 200;
+	private static final int MAX_CROSS_RATES = 400;
+	private static final int MAX_DEPTH_LEVELS = 50;
+	static final String CHECKPOINT_NAME = "tickers";
+	private static final JsonPayload NO_TICKERS = JsonPayload.of("[]".getBytes(StandardCharsets.UTF_8));
 
 	private final RestClient restClient;
 	private final RestClient coinextClient;
 	private final List<String> instIds;
+	private final Set<String> instIdUniverse;
+	private final boolean okxBatchTickers;
 	private final List<String> coinextInstIds;
 	private final List<String> forexPairs;
 	private final Duration cacheTtl;
 	private final Duration coinextFallbackTtl;
 	private final Duration forexCacheTtl;
+	private final Duration fetchTimeout;
+	private final ExecutorService fetchExecutor;
+	private final boolean backgroundRefresh;
+	private final Duration refreshInterval;
+	private final long refreshJitterMs;
+	private final Duration maxStaleness;
+	private final ScheduledExecutorService refreshScheduler;
+	private final OkxLiveFeed liveFeed;
+	private final CandleStore candleStore;
+	private final FxRateService fxRates;
+	private final MarketSnapshotRepository snapshots;
+	private final MarketMetrics metrics;
+	private final boolean checkpointEnabled;
+	private final Duration checkpointInterval;
+	private final Duration checkpointMaxAge;
+	private final MarketCluster cluster;
+	private final CircuitBreaker coinextBreaker;
+	private final Map<String, L2Book> lastCoinextBooks = new ConcurrentHashMap<>();
+	private final Duration livePublishInterval;
+	private final ObjectMapper objectMapper;
 
 	private volatile CacheEntry cryptoCache = null;
 	private volatile CacheEntry forexCache = null;
-	private final Map<String, CandleCacheEntry> candlesCache = new HashMap<>();
-	private final Map<String, List<CandlePoint>> syntheticCandlesByInstId = new HashMap<>();
-	private final Map<String, CoinextTickerCacheEntry> coinextTickerCache = new HashMap<>();
+	private volatile CombinedPayload allTickersPayload = null;
+	private volatile SnapshotGraph rateGraph = null;
+	/** {@code updated_at} of the shared row last applied by this follower. */
+	private volatile Instant sharedSnapshotAt = null;
+	private volatile Instant sharedWrittenAt = null;
+	private final CandleCache candleCache;
+	private final Map<String, CandleRing> syntheticCandlesByInstId = new ConcurrentHashMap<>();
+	private final Map<String, FiatBackfill> fiatBackfills = new ConcurrentHashMap<>();
+	private final Map<String, CoinextTickerCacheEntry> coinextTickerCache = new ConcurrentHashMap<>();
+	private final Map<String, OkxRestTicker> okxRestTickers = new ConcurrentHashMap<>();
+	private final DepthCache depthCache;
+
+	// One single-flight loader per dataset: concurrent misses on a key share one upstream call,
+	// and a slow load of one dataset never blocks another.
+	private final SingleFlight<String, CacheEntry> tickerLoads = new SingleFlight<>();
+	private final SingleFlight<String, List<CandlePoint>> candleLoads = new SingleFlight<>();
+	private final SingleFlight<String, OrderBook> okxOrderBookLoads = new SingleFlight<>();
+	private final SingleFlight<String, L2Book> orderBookLoads = new SingleFlight<>();
+	private final SingleFlight<String, MarketTicker> coinextTickerLoads = new SingleFlight<>();
 
 	public MarketDataService(
+			CandleStore candleStore,
+			FxRateService fxRates,
+			MarketSnapshotRepository snapshots,
+			DataSourceProperties dataSource,
+			MeterRegistry meterRegistry,
+			ObjectMapper objectMapper,
 			@Value("${MARKET_OKX_INST_IDS:BTC-USDT,ETH-USDT,XRP-USDT,SOL-USDT,ADA-USDT}") String okxInstIdsRaw,
 			@Value("${MARKET_ASSETS:}") String legacyAssetsRaw,
 			@Value("${MARKET_FOREX_PAIRS:USD-EUR,USD-GBP,USD-JPY,USD-CNY,USD-CHF,USDT-BRL}") String forexPairsRaw,
-			@Value("${MARKET_CACHE_TTL_SECONDS:10}") long ttlSeconds
+			@Value("${MARKET_CACHE_TTL_SECONDS:10}") long ttlSeconds,
+			@Value("${MARKET_FETCH_TIMEOUT_MS:5000}") long fetchTimeoutMs,
+			@Value("${MARKET_OKX_BATCH_TICKERS:true}") boolean okxBatchTickers,
+			@Value("${MARKET_REFRESH_ENABLED:true}") boolean backgroundRefresh,
+			@Value("${MARKET_REFRESH_INTERVAL_MS:0}") long refreshIntervalMs,
+			@Value("${MARKET_REFRESH_JITTER_MS:1000}") long refreshJitterMs,
+			@Value("${MARKET_MAX_STALENESS_SECONDS:300}") long maxStalenessSeconds,
+			@Value("${MARKET_CANDLE_CACHE_MAX_ENTRIES:256}") int candleCacheMaxEntries,
+			@Value("${MARKET_DEPTH_CACHE_MS:1000}") long depthCacheMs,
+			@Value("${MARKET_DEPTH_CACHE_MAX_ENTRIES:512}") int depthCacheMaxEntries,
+			@Value("${MARKET_OKX_WS_ENABLED:false}") boolean okxWsEnabled,
+			@Value("${MARKET_OKX_WS_URL:wss://ws.okx.com:8443/ws/v5/public}") String okxWsUrl,
+			@Value("${MARKET_OKX_WS_STALE_MS:5000}") long okxWsStaleMs,
+			@Value("${MARKET_OKX_WS_PUBLISH_MS:500}") long okxWsPublishMs,
+			@Value("${MARKET_COINEXT_BREAKER_FAILURES:3}") int coinextBreakerFailures,
+			@Value("${MARKET_COINEXT_BREAKER_OPEN_MS:1000}") long coinextBreakerOpenMs,
+			@Value("${MARKET_COINEXT_BREAKER_MAX_OPEN_MS:60000}") long coinextBreakerMaxOpenMs,
+			@Value("${MARKET_CHECKPOINT_ENABLED:true}") boolean checkpointEnabled,
+			@Value("${MARKET_CHECKPOINT_INTERVAL_SECONDS:60}") long checkpointIntervalSeconds,
+			@Value("${MARKET_CHECKPOINT_MAX_AGE_SECONDS:86400}") long checkpointMaxAgeSeconds,
+			@Value("${MARKET_CLUSTER_ENABLED:false}") boolean clusterEnabled,
+			@Value("${MARKET_CLUSTER_LOCK_KEY:1414679126}") long clusterLockKey,
+			@Value("${MARKET_CLUSTER_POLL_MS:5000}") long clusterPollMs
 	) {
-		this.restClient = RestClient.builder().baseUrl("https://www.okx.com").build();
+		this.fetchTimeout = Duration.ofMillis(Math.max(500, fetchTimeoutMs));
+		var okxHttpClient = HttpClient.newBuilder()
+				.connectTimeout(fetchTimeout)
+				.build();
+		var okxRequestFactory = new JdkClientHttpRequestFactory(okxHttpClient);
+		okxRequestFactory.setReadTimeout(fetchTimeout);
+		this.restClient = RestClient.builder()
+				.baseUrl("https://www.okx.com")
+				.requestFactory(okxRequestFactory)
+				.build();
 		var coinextHttpClient = HttpClient.newBuilder()
 				.version(HttpClient.Version.HTTP_1_1)
-				.connectTimeout(Duration.ofSeconds(6))
+				.connectTimeout(fetchTimeout)
 				.build();
+		var coinextRequestFactory = new JdkClientHttpRequestFactory(coinextHttpClient);
+		coinextRequestFactory.setReadTimeout(fetchTimeout);
 		this.coinextClient = RestClient.builder()
 				.baseUrl("https://api.coinext.com.br:8443")
-				.requestFactory(new JdkClientHttpRequestFactory(coinextHttpClient))
+				.requestFactory(coinextRequestFactory)
 				.build();
 		this.instIds = parseInstIds(okxInstIdsRaw, legacyAssetsRaw);
+		this.instIdUniverse = new HashSet<>();
+		for (var instId : instIds) {
+			instIdUniverse.add(normalizeInstId(instId));
+		}
+		this.okxBatchTickers = okxBatchTickers;
 		this.coinextInstIds = List.of("USDT-BRL");
 		this.forexPairs = parseForexPairs(forexPairsRaw);
 		this.cacheTtl = Duration.ofSeconds(Math.max(5, ttlSeconds));
 		this.coinextFallbackTtl = Duration.ofMinutes(5);
 		this.forexCacheTtl = Duration.ofMinutes(1);
+		this.candleCache = new CandleCache(candleCacheMaxEntries, cacheTtl);
+		this.depthCache = new DepthCache(depthCacheMaxEntries, Duration.ofMillis(Math.max(0, depthCacheMs)));
+		this.fetchExecutor = newFetchExecutor(instIds.size() + coinextInstIds.size());
+		this.backgroundRefresh = backgroundRefresh;
+		this.refreshInterval = refreshIntervalMs > 0 ? Duration.ofMillis(Math.max(1000, refreshIntervalMs)) : cacheTtl;
+		this.refreshJitterMs = Math.max(0, refreshJitterMs);
+		this.maxStaleness = Duration.ofSeconds(Math.max(this.refreshInterval.toSeconds() * 2, maxStalenessSeconds));
+		this.candleStore = candleStore;
+		this.fxRates = fxRates;
+		this.snapshots = snapshots;
+		this.checkpointEnabled = checkpointEnabled;
+		this.checkpointInterval = Duration.ofSeconds(Math.max(10, checkpointIntervalSeconds));
+		this.checkpointMaxAge = Duration.ofSeconds(Math.max(60, checkpointMaxAgeSeconds));
+		this.objectMapper = objectMapper;
+		this.coinextBreaker = new CircuitBreaker(
+				"coinext",
+				coinextBreakerFailures,
+				Duration.ofMillis(Math.max(100, coinextBreakerOpenMs)),
+				Duration.ofMillis(Math.max(100, coinextBreakerMaxOpenMs))
+		);
+		this.coinextBreaker.bindTo(meterRegistry);
+		this.metrics = new MarketMetrics(meterRegistry);
+		this.candleCache.bindTo(meterRegistry);
+		this.depthCache.bindTo(meterRegistry);
+		bindSnapshotGauges(meterRegistry, "crypto", () -> cryptoCache);
+		bindSnapshotGauges(meterRegistry, "fiat", () -> forexCache);
+		this.liveFeed = okxWsEnabled
+				? new OkxLiveFeed(URI.create(okxWsUrl), List.copyOf(instIdUniverse), Duration.ofMillis(Math.max(1000, okxWsStaleMs)))
+				: null;
+		this.livePublishInterval = Duration.ofMillis(Math.max(100, okxWsPublishMs));
+		if (clusterEnabled && !backgroundRefresh) {
+			log.warn("MARKET_CLUSTER_ENABLED is ignored while MARKET_REFRESH_ENABLED=false");
+		}
+		this.cluster = clusterEnabled && backgroundRefresh
+				? new MarketCluster(
+						() -> DriverManager.getConnection(dataSource.determineUrl(), dataSource.determineUsername(), dataSource.determinePassword()),
+						snapshots,
+						clusterLockKey,
+						Duration.ofMillis(Math.max(500, clusterPollMs)),
+						this::applySharedSnapshot
+				)
+				: null;
+		if (cluster != null) {
+			cluster.bindTo(meterRegistry);
+		}
+		this.refreshScheduler = new ScheduledThreadPoolExecutor(1, r -> {
+			var t = new Thread(r, "market-refresh");
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	void startBackgroundRefresh() {
+		if (liveFeed != null) {
+			liveFeed.start();
+		}
+		if (cluster != null) {
+			cluster.start();
+		}
+		if (checkpointEnabled) {
+			long interval = checkpointInterval.toMillis();
+			refreshScheduler.scheduleWithFixedDelay(this::checkpoint, interval, interval, TimeUnit.MILLISECONDS);
+		}
+		if (!backgroundRefresh) {
+			return;
+		}
+		log.info("Market background refresh enabled: interval={} jitterMs={} maxStaleness={}", refreshInterval, refreshJitterMs, maxStaleness);
+		refreshScheduler.execute(this::refreshCryptoSnapshot);
+		refreshScheduler.execute(this::refreshFiatSnapshot);
+	}
+
+	@PreDestroy
+	void shutdown() {
+		refreshScheduler.shutdownNow();
+		if (checkpointEnabled) {
+			checkpoint();
+		}
+		if (cluster != null) {
+			cluster.stop();
+		}
+		fetchExecutor.shutdownNow();
+		if (liveFeed != null) {
+			liveFeed.stop();
+		}
 	}
 
 	public List<MarketTicker> getCryptoTickers() {
+		return tickers(cryptoEntry());
+	}
+
+	public List<MarketTicker> getFiatTickers() {
+		return tickers(fiatEntry());
+	}
+
+	/** The crypto snapshot as pre-serialized JSON; built once when the snapshot is published. */
+	SnapshotPayload getCryptoTickersPayload() {
+		var entry = cryptoEntry();
+		return new SnapshotPayload(payload(entry), isStale(entry));
+	}
+
+	SnapshotPayload getFiatTickersPayload() {
+		var entry = fiatEntry();
+		return new SnapshotPayload(payload(entry), isStale(entry));
+	}
+
+	/**
+	 * Crypto and fiat tickers as one pre-serialized body. It is rebuilt only when either snapshot is
+	 * replaced, so every request in between gets the same bytes and ETag.
+	 */
+	SnapshotPayload getAllTickersPayload() {
+		var crypto = cryptoEntry();
+		var fiat = fiatEntry();
+		return new SnapshotPayload(combinedPayload(crypto, fiat), isStale(crypto) || isStale(fiat));
+	}
+
+	private CacheEntry cryptoEntry() {
+		if (backgroundRefresh) {
+			return servable(cryptoCache);
+		}
+
 		var cached = cryptoCache;
-		var now = Instant.now();
-		if (cached != null && cached.expiresAt.isAfter(now)) {
-			return cached.value;
+		if (isFresh(cached, cacheTtl, Instant.now())) {
+			metrics.cache("tickers.crypto", true);
+			return cached;
 		}
+		metrics.cache("tickers.crypto", false);
 
-		synchronized (this) {
-			cached = cryptoCache;
-			now = Instant.now();
-			if (cached != null && cached.expiresAt.isAfter(now)) {
-				return cached.value;
+		return tickerLoads.load("crypto", () -> {
+			var current = cryptoCache;
+			if (isFresh(current, cacheTtl, Instant.now())) {
+				return current;
 			}
+			var entry = newEntry(fetchCryptoTickers());
+			cryptoCache = entry;
+			return entry;
+		});
+	}
 
-			var tickers = fetchCryptoTickers();
-			cryptoCache = new CacheEntry(tickers, now.plus(cacheTtl));
-			return tickers;
+	private CacheEntry fiatEntry() {
+		if (backgroundRefresh) {
+			return servable(forexCache);
 		}
-	}
 
-	public List<MarketTicker> getFiatTickers() {
 		var cached = forexCache;
-		var now = Instant.now();
-		if (cached != null && cached.expiresAt.isAfter(now)) {
-			return cached.value;
+		if (isFresh(cached, forexCacheTtl, Instant.now())) {
+			metrics.cache("tickers.fiat", true);
+			return cached;
 		}
+		metrics.cache("tickers.fiat", false);
 
-		synchronized (this) {
-			cached = forexCache;
-			now = Instant.now();
-			if (cached != null && cached.expiresAt.isAfter(now)) {
-				return cached.value;
+		return tickerLoads.load("fiat", () -> {
+			var current = forexCache;
+			if (isFresh(current, forexCacheTtl, Instant.now())) {
+				return current;
 			}
+			var entry = newEntry(fetchFiatTickers());
+			forexCache = entry;
+			return entry;
+		});
+	}
 
+	/**
+	 * Stale-while-revalidate read: request threads only ever see the last good snapshot published by the
+	 * background refresher and never wait on OKX or Coinext. Snapshots older than the max staleness are
+	 * no longer served; a snapshot restored from the checkpoint gets the same grace period from startup.
+	 */
+	private CacheEntry servable(CacheEntry entry) {
+		if (entry == null) {
+			return null;
+		}
+		var since = entry.restoredAt() != null ? entry.restoredAt() : entry.fetchedAt();
+		if (since.plus(maxStaleness).isBefore(Instant.now())) {
+			return null;
+		}
+		return entry;
+	}
+
+	/** Restored from the checkpoint and not refreshed yet, or more than two refresh intervals old. */
+	private boolean isStale(CacheEntry entry) {
+		return entry != null
+				&& (entry.restoredAt() != null || entry.fetchedAt().plus(refreshInterval.multipliedBy(2)).isBefore(Instant.now()));
+	}
+
+	private static List<MarketTicker> tickers(CacheEntry entry) {
+		return entry == null ? List.of() : entry.value();
+	}
+
+	private static JsonPayload payload(CacheEntry entry) {
+		return entry == null ? NO_TICKERS : entry.payload();
+	}
+
+	private CacheEntry newEntry(List<MarketTicker> tickers) {
+		return new CacheEntry(tickers, Instant.now(), serialize(tickers), null);
+	}
+
+	private JsonPayload combinedPayload(CacheEntry crypto, CacheEntry fiat) {
+		var current = allTickersPayload;
+		if (current != null && current.crypto() == crypto && current.fiat() == fiat) {
+			return current.payload();
+		}
+		var all = new ArrayList<MarketTicker>(tickers(crypto).size() + tickers(fiat).size());
+		all.addAll(tickers(crypto));
+		all.addAll(tickers(fiat));
+		var payload = serialize(all);
+		allTickersPayload = new CombinedPayload(crypto, fiat, payload);
+		return payload;
+	}
+
+	private JsonPayload serialize(List<MarketTicker> tickers) {
+		if (tickers.isEmpty()) {
+			return NO_TICKERS;
+		}
+		try {
+			return JsonPayload.of(objectMapper.writeValueAsBytes(tickers));
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException("Failed to serialize market tickers", e);
+		}
+	}
+
+	private void refreshCryptoSnapshot() {
+		if (isFollower()) {
+			scheduleRefresh(this::refreshCryptoSnapshot, refreshInterval);
+			return;
+		}
+		long start = System.nanoTime();
+		String outcome = "error";
+		try {
+			var tickers = fetchCryptoTickers();
+			var previous = cryptoCache;
+			outcome = tickers.isEmpty() ? "empty" : "success";
+			if (!tickers.isEmpty() || previous == null) {
+				cryptoCache = newEntry(tickers);
+				combinedPayload(cryptoCache, servable(forexCache));
+				publishShared();
+			} else {
+				log.warn("Crypto ticker refresh returned no data, keeping snapshot from {}", previous.fetchedAt());
+			}
+		} catch (Exception e) {
+			log.warn("Crypto ticker refresh failed: {}", e.toString());
+		} finally {
+			metrics.refresh("crypto", outcome, System.nanoTime() - start);
+			// While the WebSocket feed is up the snapshot is rebuilt from the live view at a sub-second cadence.
+			scheduleRefresh(this::refreshCryptoSnapshot, liveFeed != null && liveFeed.isConnected() ? livePublishInterval : refreshInterval);
+		}
+	}
+
+	private void refreshFiatSnapshot() {
+		if (isFollower()) {
+			scheduleRefresh(this::refreshFiatSnapshot, forexCacheTtl);
+			return;
+		}
+		long start = System.nanoTime();
+		String outcome = "error";
+		try {
 			var tickers = fetchFiatTickers();
-			forexCache = new CacheEntry(tickers, now.plus(forexCacheTtl));
-			return tickers;
+			outcome = tickers.isEmpty() ? "empty" : "success";
+			if (!tickers.isEmpty() || forexCache == null) {
+				forexCache = newEntry(tickers);
+				combinedPayload(servable(cryptoCache), forexCache);
+				publishShared();
+			}
+		} catch (Exception e) {
+			log.warn("Fiat ticker refresh failed: {}", e.toString());
+		} finally {
+			metrics.refresh("fiat", outcome, System.nanoTime() - start);
+			scheduleRefresh(this::refreshFiatSnapshot, forexCacheTtl);
 		}
 	}
 
+	private void scheduleRefresh(Runnable task, Duration interval) {
+		if (refreshScheduler.isShutdown()) {
+			return;
+		}
+		long jitter = refreshJitterMs > 0 ? ThreadLocalRandom.current().nextLong(refreshJitterMs + 1) : 0;
+		refreshScheduler.schedule(task, interval.toMillis() + jitter, TimeUnit.MILLISECONDS);
+	}
+
+	/** {@code market.snapshot.age} (seconds since the served snapshot was fetched) and {@code market.snapshot.stale}. */
+	private void bindSnapshotGauges(MeterRegistry registry, String name, Supplier<CacheEntry> entry) {
+		Gauge.builder("market.snapshot.age", entry, e -> {
+					var current = e.get();
+					return current == null ? Double.NaN : Duration.between(current.fetchedAt(), Instant.now()).toMillis() / 1000.0;
+				})
+				.tag("snapshot", name)
+				.baseUnit("seconds")
+				.register(registry);
+		Gauge.builder("market.snapshot.stale", entry, e -> isStale(servable(e.get())) ? 1 : 0)
+				.tag("snapshot", name)
+				.register(registry);
+	}
+
+	private static boolean isFresh(CacheEntry entry, Duration ttl, Instant now) {
+		return entry != null && entry.fetchedAt().plus(ttl).isAfter(now);
+	}
+
+	CandleCache.Stats getCandleCacheStats() {
+		return candleCache.stats();
+	}
+
 	public List<MarketTicker> getAllTickers() {
 		var crypto = getCryptoTickers();
 		var fiat = getFiatTickers();
@@ -106,29 +483,353 @@ public class MarketDataService {
 		return result;
 	}
 
+	/**
+	 * Writes the ticker snapshots, the Coinext fallback tickers and the synthetic candle series to
+	 * {@code market_snapshots} as one gzip-compressed JSON document, so a restart can serve them at once.
+	 */
+	void checkpoint() {
+		var crypto = cryptoCache;
+		var fiat = forexCache;
+		if ((crypto == null && fiat == null) || isFollower()) {
+			return;
+		}
+		try {
+			var coinext = new HashMap<String, CheckpointTicker>();
+			coinextTickerCache.forEach((instId, cached) ->
+					coinext.put(instId, new CheckpointTicker(cached.ticker(), cached.fetchedAt().toEpochMilli())));
+			var synthetic = new HashMap<String, List<CandlePoint>>();
+			syntheticCandlesByInstId.forEach((instId, ring) -> synthetic.put(instId, ring.tail(SYNTHETIC_CANDLES)));
+			var checkpoint = new Checkpoint(
+					crypto == null ? List.of() : crypto.value(),
+					crypto == null ? 0 : crypto.fetchedAt().toEpochMilli(),
+					fiat == null ? List.of() : fiat.value(),
+					fiat == null ? 0 : fiat.fetchedAt().toEpochMilli(),
+					coinext,
+					synthetic
+			);
+			var row = new MarketSnapshotEntity();
+			row.setName(CHECKPOINT_NAME);
+			row.setPayload(encodeCheckpoint(objectMapper, checkpoint));
+			row.setUpdatedAt(Instant.now());
+			if (cluster != null) {
+				cluster.publish(row);
+				sharedWrittenAt = row.getUpdatedAt();
+			} else {
+				snapshots.save(row);
+			}
+		} catch (Exception e) {
+			log.warn("Market checkpoint failed: {}", e.toString());
+		}
+	}
+
+	/** Followers never overwrite the leader's row and make no upstream calls for the snapshots. */
+	private boolean isFollower() {
+		return cluster != null && !cluster.isLeader();
+	}
+
+	/**
+	 * As the cluster leader, new snapshots are written to the shared row at most once per refresh interval,
+	 * the cadence followers would refresh at on their own. Snapshots in between, e.g. every live feed
+	 * publish, only re-announce the version already written, which followers holding it ignore without a
+	 * query and followers that missed a notification use to catch up.
+	 */
+	private void publishShared() {
+		if (cluster == null || !cluster.isLeader()) {
+			return;
+		}
+		var written = sharedWrittenAt;
+		if (written != null && Instant.now().isBefore(written.plus(refreshInterval))) {
+			try {
+				cluster.announce(CHECKPOINT_NAME, written);
+			} catch (Exception e) {
+				log.warn("Market snapshot announcement failed: {}", e.toString());
+			}
+			return;
+		}
+		checkpoint();
+	}
+
+	/**
+	 * Installs the snapshot the leader just published. An announced version this replica already holds is
+	 * skipped without a query, and the periodic re-read finds an unchanged row by its timestamp alone.
+	 * Entries are only replaced when the leader fetched something newer, so the payloads and their ETags
+	 * stay the same across replicas between refreshes.
+	 */
+	private void applySharedSnapshot(String name, long version) {
+		if (!CHECKPOINT_NAME.equals(name)) {
+			return;
+		}
+		var applied = sharedSnapshotAt;
+		if (version >= 0 && applied != null && applied.toEpochMilli() == version) {
+			return;
+		}
+		try {
+			var updatedAt = snapshots.findUpdatedAt(CHECKPOINT_NAME).orElse(null);
+			if (updatedAt == null || updatedAt.equals(sharedSnapshotAt)) {
+				return;
+			}
+			var row = snapshots.findById(CHECKPOINT_NAME).orElse(null);
+			if (row == null) {
+				return;
+			}
+			sharedSnapshotAt = row.getUpdatedAt();
+			var shared = decodeCheckpoint(objectMapper, row.getPayload());
+			var crypto = cryptoCache;
+			if (!shared.crypto().isEmpty() && (crypto == null || crypto.restoredAt() != null || crypto.fetchedAt().toEpochMilli() != shared.cryptoFetchedAt())) {
+				cryptoCache = new CacheEntry(shared.crypto(), Instant.ofEpochMilli(shared.cryptoFetchedAt()), serialize(shared.crypto()), null);
+			}
+			var fiat = forexCache;
+			if (!shared.fiat().isEmpty() && (fiat == null || fiat.restoredAt() != null || fiat.fetchedAt().toEpochMilli() != shared.fiatFetchedAt())) {
+				forexCache = new CacheEntry(shared.fiat(), Instant.ofEpochMilli(shared.fiatFetchedAt()), serialize(shared.fiat()), null);
+			}
+			var now = Instant.now();
+			shared.coinext().forEach((instId, cached) -> coinextTickerCache.put(instId,
+					new CoinextTickerCacheEntry(cached.ticker(), Instant.ofEpochMilli(cached.fetchedAt()), now.plus(coinextFallbackTtl))));
+			shared.synthetic().forEach((instId, points) -> {
+				var ring = new CandleRing(SYNTHETIC_CANDLES);
+				for (var point : points) {
+					ring.append(parseEpochMillis(point.ts()), point.close());
+				}
+				syntheticCandlesByInstId.put(instId, ring);
+			});
+			combinedPayload(servable(cryptoCache), servable(forexCache));
+		} catch (Exception e) {
+			log.warn("Failed to apply shared market snapshot: {}", e.toString());
+		}
+	}
+
+	/**
+	 * Loads the last checkpoint before the first request. Restored snapshots are served flagged as stale
+	 * until the refresher replaces them; checkpoints older than the max age are ignored.
+	 */
+	@PostConstruct
+	void restoreCheckpoint() {
+		if (!checkpointEnabled) {
+			return;
+		}
+		try {
+			var row = snapshots.findById(CHECKPOINT_NAME).orElse(null);
+			if (row == null || row.getUpdatedAt().plus(checkpointMaxAge).isBefore(Instant.now())) {
+				return;
+			}
+			var checkpoint = decodeCheckpoint(objectMapper, row.getPayload());
+			var now = Instant.now();
+			if (cryptoCache == null && !checkpoint.crypto().isEmpty()) {
+				cryptoCache = new CacheEntry(checkpoint.crypto(), Instant.ofEpochMilli(checkpoint.cryptoFetchedAt()), serialize(checkpoint.crypto()), now);
+			}
+			if (forexCache == null && !checkpoint.fiat().isEmpty()) {
+				forexCache = new CacheEntry(checkpoint.fiat(), Instant.ofEpochMilli(checkpoint.fiatFetchedAt()), serialize(checkpoint.fiat()), now);
+			}
+			checkpoint.coinext().forEach((instId, cached) -> coinextTickerCache.putIfAbsent(instId,
+					new CoinextTickerCacheEntry(cached.ticker(), Instant.ofEpochMilli(cached.fetchedAt()), now.plus(coinextFallbackTtl))));
+			checkpoint.synthetic().forEach((instId, points) -> {
+				var ring = syntheticCandlesByInstId.computeIfAbsent(instId, k -> new CandleRing(SYNTHETIC_CANDLES));
+				for (var point : points) {
+					ring.append(parseEpochMillis(point.ts()), point.close());
+				}
+			});
+			log.info("Restored market checkpoint from {}: crypto={} fiat={} coinext={} synthetic={}",
+					row.getUpdatedAt(), checkpoint.crypto().size(), checkpoint.fiat().size(), checkpoint.coinext().size(), checkpoint.synthetic().size());
+		} catch (Exception e) {
+			log.warn("Failed to restore market checkpoint: {}", e.toString());
+		}
+	}
+
+	static byte[] encodeCheckpoint(ObjectMapper mapper, Checkpoint checkpoint) throws IOException {
+		var out = new ByteArrayOutputStream();
+		try (var gz = new GZIPOutputStream(out)) {
+			mapper.writeValue(gz, checkpoint);
+		}
+		return out.toByteArray();
+	}
+
+	static Checkpoint decodeCheckpoint(ObjectMapper mapper, byte[] payload) throws IOException {
+		try (var in = new GZIPInputStream(new ByteArrayInputStream(payload))) {
+			return mapper.readValue(in, Checkpoint.class);
+		}
+	}
+
+	/**
+	 * Rates for arbitrary {@code BASE-QUOTE} pairs, triangulated over the ticker snapshot being served
+	 * (see {@link RateGraph}). Without {@code pairs}, every ordered pair among {@code currencies}, or
+	 * among all currencies in the snapshot when that is empty too. Pairs with no path are left out.
+	 */
+	public List<CrossRate> getCrossRates(List<String> pairs, List<String> currencies) {
+		var graph = rateGraph(cryptoEntry(), fiatEntry());
+		var wanted = new ArrayList<String[]>();
+		if (pairs != null && !pairs.isEmpty()) {
+			for (var pair : pairs) {
+				var parts = normalizeInstId(pair).split("-");
+				if (parts.length != 2 || !isCurrencyCode(parts[0]) || !isCurrencyCode(parts[1])) {
+					throw new IllegalArgumentException("invalid_pair");
+				}
+				wanted.add(parts);
+			}
+		} else {
+			var codes = new ArrayList<String>();
+			if (currencies == null || currencies.isEmpty()) {
+				codes.addAll(graph.currencies());
+			} else {
+				for (var currency : currencies) {
+					var code = currency.trim().toUpperCase();
+					if (!isCurrencyCode(code)) {
+						throw new IllegalArgumentException("invalid_currency");
+					}
+					if (!codes.contains(code)) codes.add(code);
+				}
+			}
+			for (var base : codes) {
+				for (var quote : codes) {
+					if (!base.equals(quote)) wanted.add(new String[] {base, quote});
+				}
+			}
+		}
+		if (wanted.size() > MAX_CROSS_RATES) {
+			throw new IllegalArgumentException("too_many_pairs");
+		}
+		var out = new ArrayList<CrossRate>(wanted.size());
+		for (var pair : wanted) {
+			graph.rate(pair[0], pair[1]).ifPresent(out::add);
+		}
+		return out;
+	}
+
+	private RateGraph rateGraph(CacheEntry crypto, CacheEntry fiat) {
+		var current = rateGraph;
+		if (current != null && current.crypto() == crypto && current.fiat() == fiat) {
+			return current.graph();
+		}
+		var tickers = new ArrayList<MarketTicker>(tickers(crypto));
+		tickers.addAll(tickers(fiat));
+		var graph = new RateGraph(tickers);
+		rateGraph = new SnapshotGraph(crypto, fiat, graph);
+		return graph;
+	}
+
+	private static boolean isCurrencyCode(String code) {
+		if (code.length() < 2 || code.length() > 10) return false;
+		for (int i = 0; i < code.length(); i++) {
+			char c = code.charAt(i);
+			if ((c < 'A' || c > 'Z') && (c < '0' || c > '9')) return false;
+		}
+		return true;
+	}
+
 	private List<MarketTicker> fetchCryptoTickers() {
-		var result = new ArrayList<MarketTicker>();
+		var byInstId = new HashMap<String, MarketTicker>();
+		var missing = new ArrayList<String>(instIds.size());
 		for (var instId : instIds) {
-			try {
-				var t = fetchTicker(instId);
-				if (t != null) {
-					result.add(t);
+			var live = liveFeed == null ? null : liveFeed.ticker(normalizeInstId(instId));
+			if (live != null) {
+				byInstId.put(live.instId(), live);
+				continue;
+			}
+			// While the live feed drives the fast cadence, an instrument it does not cover falls back to REST
+			// at most once per cache TTL instead of on every publish.
+			if (liveFeed != null) {
+				var recent = getRecentOkxRestTicker(normalizeInstId(instId));
+				metrics.cache("okx.ticker", recent != null);
+				if (recent != null) {
+					byInstId.put(recent.instId(), recent);
+					continue;
 				}
-			} catch (Exception ignored) {
+			}
+			missing.add(instId);
+		}
+
+		// Fan out every upstream call at once so a refresh costs the slowest call, not the sum of all of them.
+		var fetchedAt = Instant.now();
+		var calls = new ArrayList<CompletableFuture<List<MarketTicker>>>(missing.size() + coinextInstIds.size());
+		if (okxBatchTickers && !missing.isEmpty()) {
+			calls.add(fetchAsync("okx", () -> fetchOkxTickers(missing), List::of, "OKX SPOT tickers"));
+		} else {
+			for (var instId : missing) {
+				calls.add(fetchAsync("okx", () -> listOf(fetchTicker(instId)), List::of, instId));
 			}
 		}
 		for (var instId : coinextInstIds) {
-			try {
-				var t = fetchCoinextTicker(instId);
+			String normalized = normalizeInstId(instId);
+			var recent = getRecentCoinextTicker(normalized);
+			metrics.cache("coinext.ticker", recent != null);
+			if (recent != null) {
+				byInstId.put(normalized, recent);
+				continue;
+			}
+			calls.add(fetchAsync(
+					"coinext",
+					() -> listOf(fetchCoinextTicker(normalized)),
+					() -> listOf(getCachedCoinextTicker(normalized)),
+					normalized
+			));
+		}
+
+		for (var call : calls) {
+			for (var t : call.join()) {
+				byInstId.put(t.instId(), t);
+			}
+		}
+		if (liveFeed != null) {
+			for (var instId : missing) {
+				var t = byInstId.get(normalizeInstId(instId));
 				if (t != null) {
-					result.add(t);
+					okxRestTickers.put(t.instId(), new OkxRestTicker(t, fetchedAt));
 				}
-			} catch (Exception ignored) {
+			}
+		}
+
+		var result = new ArrayList<MarketTicker>(instIds.size() + coinextInstIds.size());
+		for (var instId : instIds) {
+			var t = byInstId.get(normalizeInstId(instId));
+			if (t != null) {
+				result.add(t);
+				candleStore.recordTick(t.instId(), parseEpochMillis(t.ts()), t.last(), 0);
+			}
+		}
+		for (var instId : coinextInstIds) {
+			var t = byInstId.get(normalizeInstId(instId));
+			if (t != null) {
+				result.add(t);
 			}
 		}
 		return result;
 	}
 
+	/**
+	 * Runs {@code call} on the fetch pool and falls back once the refresh deadline passes. The deadline only
+	 * abandons the future; the call itself ends because both clients set the same timeout on every request
+	 * ({@code HttpRequest.timeout} via the factory's read timeout), so a stalled upstream never pins a pool thread.
+	 */
+	private <T> CompletableFuture<T> fetchAsync(String upstream, Supplier<T> call, Supplier<T> fallback, String instId) {
+		return CompletableFuture.supplyAsync(call, fetchExecutor)
+				.orTimeout(fetchTimeout.toMillis(), TimeUnit.MILLISECONDS)
+				.handle((value, ex) -> {
+					if (ex != null) {
+						log.debug("Market fetch failed for {}: {}", instId, ex.toString());
+						// Upstream failures are counted where they happen; only the refresh deadline is counted here.
+						if (ex instanceof TimeoutException) {
+							metrics.error(upstream, "refresh_deadline", ex);
+						}
+						return fallback.get();
+					}
+					if (value == null || (value instanceof List<?> l && l.isEmpty())) {
+						return fallback.get();
+					}
+					return value;
+				});
+	}
+
+	private static ExecutorService newFetchExecutor(int parallelism) {
+		int threads = Math.max(2, Math.min(16, parallelism));
+		var counter = new AtomicInteger();
+		var executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+			var t = new Thread(r, "market-fetch-" + counter.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
 	private List<MarketTicker> fetchFiatTickers() {
 		var result = new ArrayList<MarketTicker>();
 		for (var pair : forexPairs) {
@@ -137,19 +838,22 @@ public class MarketDataService {
 				if (t != null) {
 					result.add(t);
 				}
-			} catch (Exception ignored) {
+			} catch (Exception e) {
+				log.debug("FX ticker failed for {}: {}", pair, e.toString());
+				metrics.error("fx", "rate", e);
 			}
 		}
 		return result;
 	}
 
 	private MarketTicker fetchForexTicker(String pair) {
-		// For now, return synthetic forex rates
-		// In production, you would integrate with a forex API like exchangerate-api.com
 		var currencies = parsePairCurrencies(pair);
-		var rate = getSyntheticForexRate(pair);
+		var rate = fxRates.rate(pair);
 		if (rate == null) return null;
 
+		// Reference rates carry no book; every pass is also recorded so the fiat charts have real history.
+		candleStore.recordTick(normalizeInstId(pair), System.currentTimeMillis(), rate, 0);
+		var updatedAt = fxRates.updatedAt();
 		return new MarketTicker(
 				pair,
 				currencies.baseCurrency(),
@@ -162,30 +866,10 @@ public class MarketDataService {
 				null, // low24h
 				null, // vol24hBase
 				null, // vol24hQuote
-				String.valueOf(System.currentTimeMillis())
+				String.valueOf(updatedAt == null ? System.currentTimeMillis() : updatedAt.toEpochMilli())
 		);
 	}
 
-	private Double getSyntheticForexRate(String pair) {
-		// Synthetic rates for demo purposes
-		// In production, integrate with a real forex API
-		return switch (pair.toUpperCase()) {
-			case "USD-EUR" -> 0.92;
-			case "EUR-USD" -> 1.09;
-			case "USD-GBP" -> 0.79;
-			case "GBP-USD" -> 1.27;
-			case "USD-JPY" -> 149.50;
-			case "JPY-USD" -> 0.0067;
-			case "USD-CNY" -> 7.19;
-			case "CNY-USD" -> 0.139;
-			case "USD-CHF" -> 0.88;
-			case "CHF-USD" -> 1.14;
-			case "USD-BRL" -> 5.05;
-			case "BRL-USD" -> 0.198;
-			default -> null;
-		};
-	}
-
 	private static List<String> parseForexPairs(String raw) {
 		String pairs = (raw == null ? "" : raw).trim();
 		if (pairs.isBlank()) {
@@ -211,67 +895,176 @@ public class MarketDataService {
 	}
 
 	public OrderBook getOrderBook(String instId, int size) {
+		int sz = Math.max(1, Math.min(50, size));
 		if (isCoinextInstId(instId)) {
-			return fetchCoinextOrderBook(normalizeInstId(instId), size);
+			String normalized = normalizeInstId(instId);
+			return orderBookLoads.load(normalized, () -> fetchCoinextOrderBook(normalized)).top(sz);
+		}
+		if (liveFeed != null) {
+			var live = liveFeed.book(normalizeInstId(instId), sz);
+			if (live != null) {
+				return live;
+			}
 		}
+		return okxOrderBookLoads.load(instId + "|" + sz, () -> fetchOkxOrderBook(instId, sz));
+	}
 
-		int sz = Math.max(1, Math.min(50, size));
-		var currencies = parseInstIdCurrencies(instId);
+	/**
+	 * The book grouped into {@code tick}-wide price buckets, at most {@code depth} per side, with
+	 * cumulative size and notional plus mid, spread and imbalance. A result younger than
+	 * MARKET_DEPTH_CACHE_MS is served without reading the book; after that the book is read and the
+	 * result is recomputed only when the book's {@code ts} has moved on.
+	 */
+	public OrderBookDepth getOrderBookDepth(String instId, Double tick, int depth) {
+		if (tick != null && (!(tick > 0) || Double.isInfinite(tick))) {
+			throw new IllegalArgumentException("invalid_tick");
+		}
+		int levels = Math.max(1, Math.min(MAX_DEPTH_LEVELS, depth));
+		double step = tick == null ? 0 : tick;
+		var key = DepthCache.key(normalizeInstId(instId), step, levels);
+		var fresh = depthCache.getFresh(key);
+		if (fresh != null) {
+			return fresh;
+		}
+		var source = getOrderBook(instId, MAX_DEPTH_LEVELS);
+		var unchanged = depthCache.getSameVersion(key, source.ts());
+		if (unchanged != null) {
+			return unchanged;
+		}
+		var aggregated = DepthAggregator.aggregate(source, step, levels);
+		depthCache.put(key, source.ts(), aggregated);
+		return aggregated;
+	}
 
-		@SuppressWarnings("unchecked")
-		Map<String, Object> body = restClient.get()
+	DepthCache.Stats getDepthCacheStats() {
+		return depthCache.stats();
+	}
+
+	private OrderBook fetchOkxOrderBook(String instId, int sz) {
+		return metrics.upstream("okx", "books", () -> restClient.get()
 				.uri(uriBuilder -> uriBuilder
 						.path("/api/v5/market/books")
 						.queryParam("instId", instId)
 						.queryParam("sz", String.valueOf(sz))
 						.build())
 				.accept(MediaType.APPLICATION_JSON)
-				.retrieve()
-				.body(Map.class);
+				.exchange((request, response) -> {
+					if (response.getStatusCode().isError()) {
+						throw new MarketMetrics.UpstreamStatusException("OKX books request failed: status=" + response.getStatusCode().value());
+					}
+					return MarketJsonParsers.parseOkxBook(response.getBody(), instId);
+				}));
+	}
 
-		if (body == null) {
-			return new OrderBook(instId, currencies.baseCurrency(), currencies.quoteCurrency(), List.of(), List.of(), null);
-		}
+	public List<CandlePoint> getCandles(String instId, String bar, int limit) {
+		return getCandles(instId, bar, limit, null, null);
+	}
 
-		var data = asList(body.get("data"));
-		if (data.isEmpty()) {
-			return new OrderBook(instId, currencies.baseCurrency(), currencies.quoteCurrency(), List.of(), List.of(), null);
+	/**
+	 * Candles for the instId, oldest first. Bars kept by the {@link CandleStore} are served from it, with
+	 * OKX history merged in the first time a series is read and then every resync period in the
+	 * background. {@code from}/{@code to} (epoch millis, inclusive) select a time range instead of the
+	 * newest {@code limit} bars.
+	 */
+	public List<CandlePoint> getCandles(String instId, String bar, int limit, Long from, Long to) {
+		if (from != null && to != null && from > to) {
+			throw new IllegalArgumentException("invalid_candle_range");
 		}
+		boolean ranged = from != null || to != null;
 
-		var first = asMap(data.get(0));
-		var asks = parseLevels(first.get("asks"));
-		var bids = parseLevels(first.get("bids"));
-		String ts = asString(first.get("ts"));
-		return new OrderBook(instId, currencies.baseCurrency(), currencies.quoteCurrency(), asks, bids, ts);
-	}
-
-	public List<CandlePoint> getCandles(String instId, String bar, int limit) {
 		// Check if it's a fiat pair
 		if (isFiatPair(instId)) {
-			return getFiatSyntheticCandles(instId, limit);
+			return getFiatCandles(instId, bar, limit, from, to);
 		}
 
+		String barValue = (bar == null || bar.isBlank()) ? "1H" : bar.trim();
+		String normalized = normalizeInstId(instId);
+		int clampedLimit = Math.max(5, Math.min(MAX_CANDLES, limit));
+
 		if (isCoinextInstId(instId)) {
-			return getSyntheticCandles(normalizeInstId(instId), limit);
+			if (!CandleStore.supports(barValue) || candleStore.isEmpty(normalized, barValue)) {
+				return getSyntheticCandles(normalized, limit);
+			}
+			return ranged
+					? candleStore.range(normalized, barValue, from == null ? 0 : from, to == null ? Long.MAX_VALUE : to, limit)
+					: candleStore.latest(normalized, barValue, clampedLimit);
 		}
 
-		String barValue = (bar == null || bar.isBlank()) ? "1H" : bar.trim();
-		int clampedLimit = Math.max(5, Math.min(100, limit));
+		if (CandleStore.supports(barValue)) {
+			syncCandles(normalized, barValue);
+			return ranged
+					? candleStore.range(normalized, barValue, from == null ? 0 : from, to == null ? Long.MAX_VALUE : to, limit)
+					: candleStore.latest(normalized, barValue, clampedLimit);
+		}
 
-		String key = instId + "|" + barValue + "|" + clampedLimit;
-		var now = Instant.now();
-		synchronized (candlesCache) {
-			var cached = candlesCache.get(key);
-			if (cached != null && cached.expiresAt.isAfter(now)) {
-				return cached.value;
+		var series = getCachedCandles(instId, barValue, clampedLimit);
+		if (!ranged) {
+			return series;
+		}
+		long lo = from == null ? Long.MIN_VALUE : from;
+		long hi = to == null ? Long.MAX_VALUE : to;
+		var out = new ArrayList<CandlePoint>(series.size());
+		for (var point : series) {
+			long ts = parseEpochMillis(point.ts());
+			if (ts >= lo && ts <= hi) out.add(point);
+		}
+		return out;
+	}
+
+	/**
+	 * Merges OKX history into the store. An empty series is filled before answering; a populated one is
+	 * served as is and re-synced in the background so reads never wait on OKX.
+	 */
+	private void syncCandles(String instId, String bar) {
+		long now = System.currentTimeMillis();
+		if (!candleStore.needsSync(instId, bar, now)) {
+			return;
+		}
+		Runnable sync = () -> candleLoads.load(instId + "|" + bar + "|sync", () -> {
+			if (!candleStore.needsSync(instId, bar, System.currentTimeMillis())) {
+				return List.of();
+			}
+			var history = fetchCandles(instId, bar, CANDLE_BACKFILL);
+			candleStore.merge(instId, bar, history, System.currentTimeMillis());
+			return history;
+		});
+		if (candleStore.isEmpty(instId, bar)) {
+			try {
+				sync.run();
+			} catch (Exception e) {
+				log.warn("Candle backfill failed for {} {}: {}", instId, bar, e.toString());
 			}
+			return;
+		}
+		try {
+			fetchExecutor.execute(() -> {
+				try {
+					sync.run();
+				} catch (Exception e) {
+					log.warn("Candle resync failed for {} {}: {}", instId, bar, e.toString());
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			// Executor saturated or shutting down; the next read tries again.
 		}
+	}
 
-		var value = fetchCandles(instId, barValue, clampedLimit);
-		synchronized (candlesCache) {
-			candlesCache.put(key, new CandleCacheEntry(value, now.plus(cacheTtl)));
+	private List<CandlePoint> getCachedCandles(String instId, String barValue, int clampedLimit) {
+		var cached = candleCache.get(instId, barValue, clampedLimit);
+		if (cached != null) {
+			return cached;
 		}
-		return value;
+
+		// Always fetch the full series so every smaller limit for this instId/bar is a slice of one entry.
+		return candleLoads.load(instId + "|" + barValue, () -> {
+			var current = candleCache.lookup(instId, barValue, clampedLimit);
+			if (current != null) {
+				return current;
+			}
+			var value = fetchCandles(instId, barValue, MAX_CANDLES);
+			candleCache.put(instId, barValue, MAX_CANDLES, value);
+			return CandleCache.tail(value, clampedLimit);
+		});
 	}
 
 	private boolean isFiatPair(String instId) {
@@ -279,36 +1072,46 @@ public class MarketDataService {
 		return forexPairs.contains(normalized);
 	}
 
-	private List<CandlePoint> getFiatSyntheticCandles(String instId, int limit) {
-		int clampedLimit = Math.max(5, Math.min(100, limit));
+	/**
+	 * Fiat candles come from the rates recorded in the {@link CandleStore}. Until a pair has recorded
+	 * enough bars the older part of the chart is a deterministic backfill anchored at the first recorded
+	 * open, cached until that bar changes.
+	 */
+	private List<CandlePoint> getFiatCandles(String instId, String bar, int limit, Long from, Long to) {
 		String normalized = normalizeInstId(instId);
-		
-		// Generate synthetic historical data based on the current rate
-		Double currentRate = getSyntheticForexRate(normalized);
-		if (currentRate == null) {
-			return List.of();
+		String barValue = bar != null && CandleStore.supports(bar.trim()) ? bar.trim() : "1H";
+		int clampedLimit = Math.max(5, Math.min(MAX_CANDLES, limit));
+
+		if (candleStore.isEmpty(normalized, barValue)) {
+			Double rate = fxRates.rate(normalized);
+			if (rate == null) {
+				return List.of();
+			}
+			candleStore.recordTick(normalized, System.currentTimeMillis(), rate, 0);
+		}
+		if (from != null || to != null) {
+			return candleStore.range(normalized, barValue, from == null ? 0 : from, to == null ? Long.MAX_VALUE : to, limit);
 		}
 
-		var points = new ArrayList<CandlePoint>();
-		var now = Instant.now();
-		
-		// Generate random walk around the current rate
-		double rate = currentRate;
-		for (int i = clampedLimit - 1; i >= 0; i--) {
-			// Add small random variation (±0.5%)
-			double variation = (Math.random() - 0.5) * 0.01;
-			rate = rate * (1 + variation);
-			
-			String ts = String.valueOf(now.minusSeconds(i * 3600).toEpochMilli());
-			points.add(new CandlePoint(ts, rate));
+		var recorded = candleStore.latest(normalized, barValue, clampedLimit);
+		if (recorded.size() >= clampedLimit || recorded.isEmpty()) {
+			return recorded;
 		}
-		
-		return points;
+		var first = recorded.get(0);
+		long firstOpenTime = parseEpochMillis(first.ts());
+		var backfill = fiatBackfills.compute(normalized + "|" + barValue, (key, cached) ->
+				cached != null && cached.firstOpenTime() == firstOpenTime && cached.anchor() == first.open()
+						? cached
+						: new FiatBackfill(firstOpenTime, first.open(),
+								FxRateHistory.backfill(normalized, CandleStore.barMillis(barValue), firstOpenTime, first.open(), MAX_CANDLES)));
+		var out = new ArrayList<CandlePoint>(clampedLimit);
+		out.addAll(CandleCache.tail(backfill.points(), clampedLimit - recorded.size()));
+		out.addAll(recorded);
+		return out;
 	}
 
 	private List<CandlePoint> fetchCandles(String instId, String bar, int limit) {
-		@SuppressWarnings("unchecked")
-		Map<String, Object> body = restClient.get()
+		return metrics.upstream("okx", "candles", () -> restClient.get()
 				.uri(uriBuilder -> uriBuilder
 						.path("/api/v5/market/candles")
 						.queryParam("instId", instId)
@@ -316,154 +1119,87 @@ public class MarketDataService {
 						.queryParam("limit", String.valueOf(limit))
 						.build())
 				.accept(MediaType.APPLICATION_JSON)
-				.retrieve()
-				.body(Map.class);
-
-		if (body == null) {
-			return List.of();
-		}
-
-		var data = asList(body.get("data"));
-		if (data.isEmpty()) {
-			return List.of();
-		}
-
-		var points = new ArrayList<CandlePoint>();
-		for (var row : data) {
-			var cols = asList(row);
-			if (cols.size() < 5) continue;
-			String ts = asString(cols.get(0));
-			Double close = asDouble(cols.get(4));
-			if (ts == null || close == null) continue;
-			points.add(new CandlePoint(ts, close));
-		}
-		java.util.Collections.reverse(points);
-		return points;
+				.exchange((request, response) -> {
+					if (response.getStatusCode().isError()) {
+						throw new MarketMetrics.UpstreamStatusException("OKX candles request failed: status=" + response.getStatusCode().value());
+					}
+					return MarketJsonParsers.parseOkxCandles(response.getBody());
+				}));
 	}
 
 	private MarketTicker fetchTicker(String instId) {
-		var currencies = parseInstIdCurrencies(instId);
-
-		@SuppressWarnings("unchecked")
-		Map<String, Object> body = restClient.get()
+		String normalized = normalizeInstId(instId);
+		var tickers = metrics.upstream("okx", "ticker", () -> restClient.get()
 				.uri(uriBuilder -> uriBuilder
 						.path("/api/v5/market/ticker")
-						.queryParam("instId", instId)
+						.queryParam("instId", normalized)
 						.build())
 				.accept(MediaType.APPLICATION_JSON)
-				.retrieve()
-				.body(Map.class);
-
-		if (body == null) {
-			return null;
-		}
-
-		var data = asList(body.get("data"));
-		if (data.isEmpty()) {
-			return null;
-		}
-
-		var first = asMap(data.get(0));
-		Double last = asDouble(first.get("last"));
-		if (last == null) {
-			return null;
-		}
+				.exchange((request, response) -> {
+					if (response.getStatusCode().isError()) {
+						throw new MarketMetrics.UpstreamStatusException("OKX ticker request failed: status=" + response.getStatusCode().value());
+					}
+					return MarketJsonParsers.parseOkxTickers(response.getBody(), Set.of(normalized));
+				}));
+		return tickers.get(normalized);
+	}
 
-		Double open24h = asDouble(first.get("open24h"));
-		Double change24h = null;
-		if (open24h != null && open24h > 0) {
-			change24h = ((last - open24h) / open24h) * 100.0;
+	/**
+	 * Pulls every SPOT ticker in a single request and keeps only the configured universe, so the number of
+	 * outbound requests does not grow with the number of listed pairs.
+	 */
+	private List<MarketTicker> fetchOkxTickers(List<String> wanted) {
+		var tickers = metrics.upstream("okx", "tickers", () -> restClient.get()
+				.uri(uriBuilder -> uriBuilder
+						.path("/api/v5/market/tickers")
+						.queryParam("instType", "SPOT")
+						.build())
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange((request, response) -> {
+					if (response.getStatusCode().isError()) {
+						throw new MarketMetrics.UpstreamStatusException("OKX tickers request failed: status=" + response.getStatusCode().value());
+					}
+					return MarketJsonParsers.parseOkxTickers(response.getBody(), instIdUniverse);
+				}));
+
+		var result = new ArrayList<MarketTicker>(wanted.size());
+		for (var instId : wanted) {
+			var t = tickers.get(normalizeInstId(instId));
+			if (t != null) {
+				result.add(t);
+			}
 		}
-
-		Double bid = asDouble(first.get("bidPx"));
-		Double ask = asDouble(first.get("askPx"));
-		Double high24h = asDouble(first.get("high24h"));
-		Double low24h = asDouble(first.get("low24h"));
-		Double vol24h = asDouble(first.get("vol24h"));
-		Double volCcy24h = asDouble(first.get("volCcy24h"));
-		String ts = asString(first.get("ts"));
-		return new MarketTicker(
-				instId,
-				currencies.baseCurrency(),
-				currencies.quoteCurrency(),
-				last,
-				bid,
-				ask,
-				change24h,
-				high24h,
-				low24h,
-				vol24h,
-				volCcy24h,
-				ts
-		);
+		return result;
 	}
 
 	private MarketTicker fetchCoinextTicker(String instId) {
 		String normalized = normalizeInstId(instId);
+		return coinextTickerLoads.load(normalized, () -> loadCoinextTicker(normalized));
+	}
+
+	private MarketTicker loadCoinextTicker(String normalized) {
 		var currencies = parseInstIdCurrencies(normalized);
 		Integer instrumentId = mapCoinextInstrumentId(normalized);
 		if (instrumentId == null) {
 			return null;
 		}
 
-		var body = fetchCoinextL2Snapshot(instrumentId, 10);
-		if (body == null) {
-			try {
-				Thread.sleep(150);
-			} catch (InterruptedException ignored) {
-			}
-			body = fetchCoinextL2Snapshot(instrumentId, 1);
-		}
-		if (body == null) {
-			return getCachedCoinextTicker(normalized);
-		}
-
-		if (body == null || body.isEmpty()) {
-			return getCachedCoinextTicker(normalized);
-		}
-
-		Double last = null;
-		Double bestBid = null;
-		Double bestAsk = null;
-		String ts = null;
-
-		for (var row : body) {
-			var cols = asList(row);
-			if (cols.size() < 10) continue;
-
-			Double lastTradePrice = asDouble(cols.get(4));
-			Double price = asDouble(cols.get(6));
-			Double qty = asDouble(cols.get(8));
-			Integer side = asInt(cols.get(9));
-			String actionTs = asString(cols.get(2));
-
-			if (last == null && lastTradePrice != null) {
-				last = lastTradePrice;
-			}
-			if (ts == null && actionTs != null) {
-				ts = actionTs;
-			}
-			if (price == null || qty == null || side == null) continue;
-
-			if (side == 0) {
-				if (bestBid == null || price > bestBid) bestBid = price;
-			} else if (side == 1) {
-				if (bestAsk == null || price < bestAsk) bestAsk = price;
-			}
-		}
-
-		if (last == null) {
+		var top = new CoinextTopOfBook();
+		int rows = fetchCoinextL2Snapshot(instrumentId, 10, top);
+		if (rows <= 0 || Double.isNaN(top.last)) {
 			return getCachedCoinextTicker(normalized);
 		}
 
-		appendSyntheticCandle(normalized, ts, last);
+		String ts = top.actionTime >= 0 ? String.valueOf(top.actionTime) : null;
+		appendSyntheticCandle(normalized, ts, top.last);
+		candleStore.recordTick(normalized, parseEpochMillis(ts), top.last, 0);
 		var ticker = new MarketTicker(
 				normalized,
 				currencies.baseCurrency(),
 				currencies.quoteCurrency(),
-				last,
-				bestBid,
-				bestAsk,
+				top.last,
+				Double.isNaN(top.bestBid) ? null : top.bestBid,
+				Double.isNaN(top.bestAsk) ? null : top.bestAsk,
 				null,
 				null,
 				null,
@@ -475,125 +1211,137 @@ public class MarketDataService {
 		return ticker;
 	}
 
-	private OrderBook fetchCoinextOrderBook(String instId, int size) {
-		var currencies = parseInstIdCurrencies(instId);
+	/** Collects last trade, best bid/ask and the first action time while a snapshot streams by. */
+	private static final class CoinextTopOfBook implements MarketJsonParsers.CoinextL2Row {
+		double last = Double.NaN;
+		double bestBid = Double.NaN;
+		double bestAsk = Double.NaN;
+		long actionTime = -1;
+
+		@Override
+		public void row(long rowActionTime, double lastTradePrice, double price, double quantity, int side) {
+			if (Double.isNaN(last) && !Double.isNaN(lastTradePrice)) last = lastTradePrice;
+			if (actionTime < 0 && rowActionTime >= 0) actionTime = rowActionTime;
+			if (Double.isNaN(price) || Double.isNaN(quantity)) return;
+			if (side == 0) {
+				if (Double.isNaN(bestBid) || price > bestBid) bestBid = price;
+			} else if (side == 1) {
+				if (Double.isNaN(bestAsk) || price < bestAsk) bestAsk = price;
+			}
+		}
+	}
+
+	/**
+	 * Streams a full-depth Coinext L2 snapshot straight into a new book for the instrument, so every
+	 * requested size is served as a prefix of the same sorted levels. When the call fails or the breaker
+	 * is open the last good book is returned (empty if there never was one).
+	 */
+	private L2Book fetchCoinextOrderBook(String instId) {
 		Integer instrumentId = mapCoinextInstrumentId(instId);
 		if (instrumentId == null) {
-			return new OrderBook(instId, currencies.baseCurrency(), currencies.quoteCurrency(), List.of(), List.of(), null);
+			return new L2Book(instId);
 		}
 
-		int depth = Math.max(1, Math.min(50, size));
-		var body = fetchCoinextL2Snapshot(instrumentId, depth);
-		if (body == null) {
-			try {
-				Thread.sleep(150);
-			} catch (InterruptedException ignored) {
-			}
-			body = fetchCoinextL2Snapshot(instrumentId, Math.min(10, depth));
-		}
-		if (body == null) {
-			return new OrderBook(instId, currencies.baseCurrency(), currencies.quoteCurrency(), List.of(), List.of(), null);
+		var book = new L2Book(instId);
+		var firstAction = new long[] {-1};
+		MarketJsonParsers.CoinextL2Row sink = (actionTime, lastTradePrice, price, quantity, side) -> {
+			if (firstAction[0] < 0 && actionTime >= 0) firstAction[0] = actionTime;
+			if (Double.isNaN(price) || Double.isNaN(quantity) || (side != 0 && side != 1)) return;
+			book.set(side == 0, price, quantity);
+		};
+		if (fetchCoinextL2Snapshot(instrumentId, 50, sink) < 0) {
+			var last = lastCoinextBooks.get(instId);
+			return last != null ? last : new L2Book(instId);
 		}
+		book.commit(firstAction[0] >= 0 ? String.valueOf(firstAction[0]) : null, 0);
+		lastCoinextBooks.put(instId, book);
+		return book;
+	}
 
-		if (body == null || body.isEmpty()) {
-			return new OrderBook(instId, currencies.baseCurrency(), currencies.quoteCurrency(), List.of(), List.of(), null);
+	/**
+	 * Streams a GetL2Snapshot response into {@code sink}; returns the row count, or -1 when the call
+	 * failed or was short-circuited by the Coinext breaker.
+	 */
+	private int fetchCoinextL2Snapshot(int instrumentId, int depth, MarketJsonParsers.CoinextL2Row sink) {
+		if (!coinextBreaker.tryAcquire()) {
+			return -1;
 		}
-
-		var asks = new ArrayList<Level>();
-		var bids = new ArrayList<Level>();
-		String ts = null;
-
-		for (var row : body) {
-			var cols = asList(row);
-			if (cols.size() < 10) continue;
-			Double price = asDouble(cols.get(6));
-			Double qty = asDouble(cols.get(8));
-			Integer side = asInt(cols.get(9));
-			String actionTs = asString(cols.get(2));
-			if (ts == null && actionTs != null) ts = actionTs;
-			if (price == null || qty == null || side == null) continue;
-
-			if (side == 0) {
-				bids.add(new Level(price, qty));
-			} else if (side == 1) {
-				asks.add(new Level(price, qty));
-			}
+		int rows = requestCoinextL2Snapshot(instrumentId, depth, sink);
+		if (rows < 0) {
+			coinextBreaker.onFailure();
+		} else {
+			coinextBreaker.onSuccess();
 		}
-
-		asks.sort(java.util.Comparator.comparingDouble(Level::price));
-		bids.sort((a, b) -> Double.compare(b.price(), a.price()));
-
-		if (asks.size() > depth) asks = new ArrayList<>(asks.subList(0, depth));
-		if (bids.size() > depth) bids = new ArrayList<>(bids.subList(0, depth));
-
-		return new OrderBook(instId, currencies.baseCurrency(), currencies.quoteCurrency(), asks, bids, ts);
+		return rows;
 	}
 
-	private List<Object> fetchCoinextL2Snapshot(int instrumentId, int depth) {
+	private int requestCoinextL2Snapshot(int instrumentId, int depth, MarketJsonParsers.CoinextL2Row sink) {
 		int safeDepth = Math.max(1, Math.min(50, depth));
 		try {
-			@SuppressWarnings("unchecked")
-			List<Object> out = coinextClient.post()
+			return metrics.upstream("coinext", "GetL2Snapshot", () -> coinextClient.post()
 					.uri("/AP/GetL2Snapshot")
 					.contentType(MediaType.APPLICATION_JSON)
 					.accept(MediaType.APPLICATION_JSON)
 					.body(Map.of("OMSId", 1, "InstrumentId", instrumentId, "Depth", safeDepth))
-					.retrieve()
-					.body(List.class);
-			return out;
+					.exchange((request, response) -> {
+						if (response.getStatusCode().isError()) {
+							throw new MarketMetrics.UpstreamStatusException("Coinext GetL2Snapshot failed: status=" + response.getStatusCode().value());
+						}
+						return MarketJsonParsers.parseCoinextL2(response.getBody(), sink);
+					}));
 		} catch (Exception e) {
-			if (e instanceof RestClientResponseException rre) {
-				log.warn("Coinext GetL2Snapshot failed: status={} instrumentId={} depth={}", rre.getStatusCode(), instrumentId, safeDepth);
-			} else {
-				log.warn("Coinext GetL2Snapshot failed: type={} instrumentId={} depth={} msg={}", e.getClass().getSimpleName(), instrumentId, safeDepth, e.getMessage());
-			}
-			return null;
+			log.warn("Coinext GetL2Snapshot failed: type={} instrumentId={} depth={} msg={}", e.getClass().getSimpleName(), instrumentId, safeDepth, e.getMessage());
+			return -1;
 		}
 	}
 
 	private void cacheCoinextTicker(String instId, MarketTicker ticker) {
-		synchronized (coinextTickerCache) {
-			coinextTickerCache.put(instId, new CoinextTickerCacheEntry(ticker, Instant.now().plus(coinextFallbackTtl)));
-		}
+		var now = Instant.now();
+		coinextTickerCache.put(instId, new CoinextTickerCacheEntry(ticker, now, now.plus(coinextFallbackTtl)));
+	}
+
+	/** Coinext ticker fetched within the cache TTL, so faster snapshot cadences do not poll Coinext more often. */
+	private MarketTicker getRecentCoinextTicker(String instId) {
+		var cached = coinextTickerCache.get(instId);
+		if (cached == null || cached.fetchedAt().plus(cacheTtl).isBefore(Instant.now())) return null;
+		return cached.ticker();
+	}
+
+	/** OKX ticker fetched over REST within the cache TTL, for instruments the live feed has no ticker for. */
+	private MarketTicker getRecentOkxRestTicker(String instId) {
+		var cached = okxRestTickers.get(instId);
+		if (cached == null || cached.fetchedAt().plus(cacheTtl).isBefore(Instant.now())) return null;
+		return cached.ticker();
 	}
 
 	private MarketTicker getCachedCoinextTicker(String instId) {
-		var now = Instant.now();
-		synchronized (coinextTickerCache) {
-			var cached = coinextTickerCache.get(instId);
-			if (cached == null) return null;
-			if (cached.expiresAt().isBefore(now)) return null;
-			return cached.ticker();
-		}
+		var cached = coinextTickerCache.get(instId);
+		if (cached == null) return null;
+		if (cached.expiresAt().isBefore(Instant.now())) return null;
+		return cached.ticker();
 	}
 
 	private List<CandlePoint> getSyntheticCandles(String instId, int limit) {
 		int clampedLimit = Math.max(5, Math.min(100, limit));
-		synchronized (syntheticCandlesByInstId) {
-			var series = syntheticCandlesByInstId.getOrDefault(instId, List.of());
-			if (series.isEmpty()) {
-				return List.of();
-			}
-			int from = Math.max(0, series.size() - clampedLimit);
-			return new ArrayList<>(series.subList(from, series.size()));
-		}
+		var series = syntheticCandlesByInstId.get(instId);
+		return series == null ? List.of() : series.tail(clampedLimit);
 	}
 
+	/** Called only from the single-flighted Coinext load, so each ring has one writer at a time. */
 	private void appendSyntheticCandle(String instId, String ts, double close) {
-		String candleTs = ts != null ? ts : String.valueOf(System.currentTimeMillis());
-		synchronized (syntheticCandlesByInstId) {
-			var series = new ArrayList<>(syntheticCandlesByInstId.getOrDefault(instId, List.of()));
-			if (!series.isEmpty() && series.get(series.size() - 1).ts().equals(candleTs)) {
-				series.set(series.size() - 1, new CandlePoint(candleTs, close));
-			} else {
-				series.add(new CandlePoint(candleTs, close));
-			}
-			int maxSize = 200;
-			if (series.size() > maxSize) {
-				series = new ArrayList<>(series.subList(series.size() - maxSize, series.size()));
+		syntheticCandlesByInstId
+				.computeIfAbsent(instId, k -> new CandleRing(SYNTHETIC_CANDLES))
+				.append(parseEpochMillis(ts), close);
+	}
+
+	private static long parseEpochMillis(String ts) {
+		if (ts != null) {
+			try {
+				return Long.parseLong(ts.trim());
+			} catch (NumberFormatException ignored) {
 			}
-			syntheticCandlesByInstId.put(instId, series);
 		}
+		return System.currentTimeMillis();
 	}
 
 	private static boolean isCoinextInstId(String instId) {
@@ -613,64 +1361,8 @@ public class MarketDataService {
 		};
 	}
 
-	private static Integer asInt(Object value) {
-		if (value == null) return null;
-		if (value instanceof Number n) return n.intValue();
-		try {
-			return Integer.parseInt(String.valueOf(value));
-		} catch (Exception e) {
-			return null;
-		}
-	}
-
-	private static Double asDouble(Object value) {
-		if (value == null) return null;
-		if (value instanceof Number n) return n.doubleValue();
-		try {
-			return Double.parseDouble(String.valueOf(value));
-		} catch (Exception e) {
-			return null;
-		}
-	}
-
-	private static String asString(Object value) {
-		if (value == null) return null;
-		String s = String.valueOf(value);
-		return s.isBlank() ? null : s;
-	}
-
-	private static List<Object> asList(Object value) {
-		if (value instanceof List<?> l) {
-			@SuppressWarnings("unchecked")
-			List<Object> out = (List<Object>) l;
-			return out;
-		}
-		return List.of();
-	}
-
-	private static Map<String, Object> asMap(Object value) {
-		if (!(value instanceof Map<?, ?> m)) {
-			return Map.of();
-		}
-		var out = new LinkedHashMap<String, Object>();
-		for (var e : m.entrySet()) {
-			out.put(String.valueOf(e.getKey()), e.getValue());
-		}
-		return out;
-	}
-
-	private static List<Level> parseLevels(Object raw) {
-		var rows = asList(raw);
-		var levels = new ArrayList<Level>();
-		for (var r : rows) {
-			var cols = asList(r);
-			if (cols.size() < 2) continue;
-			Double price = asDouble(cols.get(0));
-			Double size = asDouble(cols.get(1));
-			if (price == null || size == null) continue;
-			levels.add(new Level(price, size));
-		}
-		return levels;
+	private static List<MarketTicker> listOf(MarketTicker ticker) {
+		return ticker == null ? List.of() : List.of(ticker);
 	}
 
 	private static List<String> parseInstIds(String okxInstIdsRaw, String legacyAssetsRaw) {
@@ -705,8 +1397,28 @@ public class MarketDataService {
 		};
 	}
 
-	private record CacheEntry(List<MarketTicker> value, Instant expiresAt) {}
-	private record CandleCacheEntry(List<CandlePoint> value, Instant expiresAt) {}
+	/** {@code restoredAt} is set when the entry was loaded from the checkpoint rather than fetched. */
+	private record CacheEntry(List<MarketTicker> value, Instant fetchedAt, JsonPayload payload, Instant restoredAt) {}
+
+	record SnapshotPayload(JsonPayload payload, boolean stale) {}
+
+	record Checkpoint(
+			List<MarketTicker> crypto,
+			long cryptoFetchedAt,
+			List<MarketTicker> fiat,
+			long fiatFetchedAt,
+			Map<String, CheckpointTicker> coinext,
+			Map<String, List<CandlePoint>> synthetic
+	) {}
+
+	record CheckpointTicker(MarketTicker ticker, long fetchedAt) {}
+
+	private record FiatBackfill(long firstOpenTime, double anchor, List<CandlePoint> points) {}
+
+	private record CombinedPayload(CacheEntry crypto, CacheEntry fiat, JsonPayload payload) {}
+
+	private record SnapshotGraph(CacheEntry crypto, CacheEntry fiat, RateGraph graph) {}
+
 
 	public record MarketTicker(
 			String instId,
@@ -727,13 +1439,41 @@ public class MarketDataService {
 
 	public record OrderBook(String instId, String baseCurrency, String quoteCurrency, List<Level> asks, List<Level> bids, String ts) {}
 
-	public record CandlePoint(String ts, double close) {}
+	/** {@code cumulativeSize} and {@code cumulativeNotional} run from the best bucket of the side down to this one. */
+	public record DepthLevel(double price, double size, double cumulativeSize, double cumulativeNotional) {}
+
+	/** {@code tick} is 0 for raw levels; {@code imbalance} is (bids - asks) / (bids + asks) over the returned buckets. */
+	public record OrderBookDepth(
+			String instId,
+			String baseCurrency,
+			String quoteCurrency,
+			double tick,
+			Double mid,
+			Double spread,
+			Double spreadBps,
+			Double imbalance,
+			List<DepthLevel> asks,
+			List<DepthLevel> bids,
+			String ts
+	) {}
+
+	/** {@code rate} is units of {@code quote} per one {@code base}; {@code path} lists the currencies crossed. */
+	public record CrossRate(String pair, String base, String quote, double rate, List<String> path) {}
+
+	public record CandlePoint(String ts, double open, double high, double low, double close, double volume) {
+		/** A point that only carries a price, used for synthetic series. */
+		public CandlePoint(String ts, double close) {
+			this(ts, close, close, close, close, 0);
+		}
+	}
+
+	private record OkxRestTicker(MarketTicker ticker, Instant fetchedAt) {}
 
-	private record CoinextTickerCacheEntry(MarketTicker ticker, Instant expiresAt) {}
+	private record CoinextTickerCacheEntry(MarketTicker ticker, Instant fetchedAt, Instant expiresAt) {}
 
-	private record InstIdCurrencies(String baseCurrency, String quoteCurrency) {}
+	record InstIdCurrencies(String baseCurrency, String quoteCurrency) {}
 
-	private static InstIdCurrencies parseInstIdCurrencies(String instId) {
+	static InstIdCurrencies parseInstIdCurrencies(String instId) {
 		if (instId == null) return new InstIdCurrencies(null, null);
 		String normalized = normalizeInstId(instId);
 		var parts = normalized.split("-");
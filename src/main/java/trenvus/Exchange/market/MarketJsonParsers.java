@@ -0,0 +1,488 @@
+package trenvus.Exchange.market;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import trenvus.Exchange.market.MarketDataService.CandlePoint;
+import trenvus.Exchange.market.MarketDataService.Level;
+import trenvus.Exchange.market.MarketDataService.MarketTicker;
+import trenvus.Exchange.market.MarketDataService.OrderBook;
+
+/**
+ * Token-level parsers for upstream market payloads (OKX tickers, books, candles and WebSocket pushes,
+ * Coinext L2 snapshots, FX rate feeds). They read the response stream once and build the domain records or fill
+ * primitive structures directly, without materializing the intermediate {@code Map}/{@code List} tree.
+ */
+final class MarketJsonParsers {
+	private static final JsonFactory JSON = new JsonFactory();
+
+	private MarketJsonParsers() {}
+
+	/**
+	 * Parses an OKX {@code /api/v5/market/ticker} or {@code /api/v5/market/tickers} response, keeping only
+	 * the instruments contained in {@code universe} (upper-case instIds). Rows outside the universe are
+	 * skipped without being decoded.
+	 */
+	static Map<String, MarketTicker> parseOkxTickers(InputStream in, Set<String> universe) throws IOException {
+		var out = new LinkedHashMap<String, MarketTicker>();
+		try (var p = JSON.createParser(in)) {
+			if (!moveToDataArray(p)) {
+				return out;
+			}
+			while (p.nextToken() == JsonToken.START_OBJECT) {
+				var ticker = readOkxTicker(p, universe);
+				if (ticker != null) {
+					out.put(ticker.instId(), ticker);
+				}
+			}
+		}
+		return out;
+	}
+
+	/** Parses an OKX {@code /api/v5/market/books} response into the first book of its {@code data} array. */
+	static OrderBook parseOkxBook(InputStream in, String instId) throws IOException {
+		List<Level> asks = List.of();
+		List<Level> bids = List.of();
+		String ts = null;
+		try (var p = JSON.createParser(in)) {
+			if (moveToDataArray(p) && p.nextToken() == JsonToken.START_OBJECT) {
+				while (p.nextToken() == JsonToken.FIELD_NAME) {
+					String field = p.currentName();
+					p.nextToken();
+					switch (field) {
+						case "asks" -> asks = readLevels(p);
+						case "bids" -> bids = readLevels(p);
+						case "ts" -> ts = readString(p);
+						default -> p.skipChildren();
+					}
+				}
+			}
+		}
+		var currencies = MarketDataService.parseInstIdCurrencies(instId);
+		return new OrderBook(instId, currencies.baseCurrency(), currencies.quoteCurrency(), asks, bids, ts);
+	}
+
+	/**
+	 * Parses an OKX {@code /api/v5/market/candles} response ({@code [ts, o, h, l, c, vol, ...]} rows,
+	 * newest first) into candles ordered oldest first.
+	 */
+	static List<CandlePoint> parseOkxCandles(InputStream in) throws IOException {
+		var points = new ArrayList<CandlePoint>();
+		try (var p = JSON.createParser(in)) {
+			if (!moveToDataArray(p)) {
+				return points;
+			}
+			while (p.nextToken() == JsonToken.START_ARRAY) {
+				String ts = null;
+				double open = Double.NaN, high = Double.NaN, low = Double.NaN, close = Double.NaN, volume = 0;
+				int col = 0;
+				while (p.nextToken() != JsonToken.END_ARRAY) {
+					switch (col++) {
+						case 0 -> ts = readString(p);
+						case 1 -> open = readPrimitiveDouble(p);
+						case 2 -> high = readPrimitiveDouble(p);
+						case 3 -> low = readPrimitiveDouble(p);
+						case 4 -> close = readPrimitiveDouble(p);
+						case 5 -> {
+							double v = readPrimitiveDouble(p);
+							if (!Double.isNaN(v)) volume = v;
+						}
+						default -> p.skipChildren();
+					}
+				}
+				if (ts == null || Double.isNaN(close)) continue;
+				points.add(new CandlePoint(
+						ts,
+						Double.isNaN(open) ? close : open,
+						Double.isNaN(high) ? close : high,
+						Double.isNaN(low) ? close : low,
+						close,
+						volume
+				));
+			}
+		}
+		Collections.reverse(points);
+		return points;
+	}
+
+	/** Receives the columns used from each Coinext {@code GetL2Snapshot} row; missing numbers are NaN / -1. */
+	@FunctionalInterface
+	interface CoinextL2Row {
+		void row(long actionTime, double lastTradePrice, double price, double quantity, int side);
+	}
+
+	/**
+	 * Streams a Coinext {@code GetL2Snapshot} response (an array of positional rows) into {@code sink}.
+	 * Rows shorter than the ten documented columns are skipped. Returns the number of rows delivered.
+	 */
+	static int parseCoinextL2(InputStream in, CoinextL2Row sink) throws IOException {
+		int rows = 0;
+		try (var p = JSON.createParser(in)) {
+			if (p.nextToken() != JsonToken.START_ARRAY) {
+				return 0;
+			}
+			while (p.nextToken() == JsonToken.START_ARRAY) {
+				long actionTime = -1;
+				double lastTradePrice = Double.NaN, price = Double.NaN, quantity = Double.NaN;
+				int side = -1;
+				int col = 0;
+				while (p.nextToken() != JsonToken.END_ARRAY) {
+					switch (col++) {
+						case 2 -> actionTime = p.currentToken() == JsonToken.VALUE_NUMBER_INT ? p.getLongValue() : -1;
+						case 4 -> lastTradePrice = readPrimitiveDouble(p);
+						case 6 -> price = readPrimitiveDouble(p);
+						case 8 -> quantity = readPrimitiveDouble(p);
+						case 9 -> side = p.currentToken() == JsonToken.VALUE_NUMBER_INT ? p.getIntValue() : -1;
+						default -> p.skipChildren();
+					}
+				}
+				if (col < 10) continue;
+				sink.row(actionTime, lastTradePrice, price, quantity, side);
+				rows++;
+			}
+		}
+		return rows;
+	}
+
+	/**
+	 * Parses one OKX public WebSocket message ({@code tickers} or {@code books} push, or an {@code event}
+	 * reply). OKX always sends {@code arg} and {@code action} before {@code data}, so the channel is known
+	 * by the time the rows are read. Book rows are applied straight into the {@link L2Book} returned by
+	 * {@code books} for the instId (no intermediate level objects), then checked against the pushed
+	 * {@code prevSeqId} and {@code checksum}.
+	 */
+	static OkxPush parseOkxPush(String text, Set<String> universe, Function<String, L2Book> books) throws IOException {
+		try (var p = JSON.createParser(text)) {
+			if (p.nextToken() != JsonToken.START_OBJECT) {
+				return null;
+			}
+			String event = null, channel = null, instId = null, message = null, action = null;
+			MarketTicker ticker = null;
+			BookSync book = BookSync.NONE;
+
+			while (p.nextToken() == JsonToken.FIELD_NAME) {
+				String field = p.currentName();
+				var value = p.nextToken();
+				switch (field) {
+					case "event" -> event = readString(p);
+					case "msg" -> message = readString(p);
+					case "action" -> action = readString(p);
+					case "arg" -> {
+						if (value != JsonToken.START_OBJECT) {
+							p.skipChildren();
+							break;
+						}
+						while (p.nextToken() == JsonToken.FIELD_NAME) {
+							String argField = p.currentName();
+							p.nextToken();
+							if ("channel".equals(argField)) channel = readString(p);
+							else if ("instId".equals(argField)) instId = readString(p);
+							else p.skipChildren();
+						}
+					}
+					case "data" -> {
+						if (value != JsonToken.START_ARRAY) {
+							p.skipChildren();
+						} else if ("tickers".equals(channel)) {
+							while (p.nextToken() == JsonToken.START_OBJECT) {
+								var t = readOkxTicker(p, universe);
+								if (t != null) ticker = t;
+							}
+						} else if ("books".equals(channel) && instId != null && universe.contains(instId)) {
+							var target = books.apply(instId);
+							while (p.nextToken() == JsonToken.START_OBJECT) {
+								book = applyOkxBook(p, target, "snapshot".equals(action));
+							}
+						} else {
+							p.skipChildren();
+						}
+					}
+					default -> p.skipChildren();
+				}
+			}
+			return new OkxPush(event, message, channel, instId, ticker, book);
+		}
+	}
+
+	/** Outcome of a {@code books} push: applied and verified, or the local book no longer matches OKX. */
+	enum BookSync { NONE, APPLIED, OUT_OF_SYNC }
+
+	record OkxPush(String event, String message, String channel, String instId, MarketTicker ticker, BookSync book) {}
+
+	private static BookSync applyOkxBook(JsonParser p, L2Book book, boolean snapshot) throws IOException {
+		synchronized (book) {
+			if (snapshot) {
+				book.clear();
+			}
+			String ts = null;
+			Long checksum = null;
+			long seqId = -1, prevSeqId = -1;
+			while (p.nextToken() == JsonToken.FIELD_NAME) {
+				String field = p.currentName();
+				p.nextToken();
+				switch (field) {
+					case "asks" -> readBookLevels(p, book, false);
+					case "bids" -> readBookLevels(p, book, true);
+					case "ts" -> ts = readString(p);
+					case "checksum" -> checksum = p.currentToken().isNumeric() ? p.getLongValue() : null;
+					case "seqId" -> seqId = p.currentToken().isNumeric() ? p.getLongValue() : -1;
+					case "prevSeqId" -> prevSeqId = p.currentToken().isNumeric() ? p.getLongValue() : -1;
+					default -> p.skipChildren();
+				}
+			}
+			if (!snapshot && (book.seqId() < 0 || prevSeqId != book.seqId())) {
+				return BookSync.OUT_OF_SYNC;
+			}
+			book.commit(ts, seqId);
+			if (checksum != null && !book.checksumMatches(checksum.intValue())) {
+				return BookSync.OUT_OF_SYNC;
+			}
+			return BookSync.APPLIED;
+		}
+	}
+
+	/** Applies {@code [price, size, ...]} rows to one side of the book, parsing the text in place. */
+	private static void readBookLevels(JsonParser p, L2Book book, boolean bid) throws IOException {
+		if (p.currentToken() != JsonToken.START_ARRAY) {
+			p.skipChildren();
+			return;
+		}
+		while (p.nextToken() == JsonToken.START_ARRAY) {
+			long price = L2Book.NO_TEXT, size = L2Book.NO_TEXT;
+			Double priceValue = null, sizeValue = null;
+			int col = 0;
+			while (p.nextToken() != JsonToken.END_ARRAY) {
+				if (col == 0) {
+					price = readDecimal(p);
+					if (price == L2Book.NO_TEXT) priceValue = readDouble(p);
+				} else if (col == 1) {
+					size = readDecimal(p);
+					if (size == L2Book.NO_TEXT) sizeValue = readDouble(p);
+				} else {
+					p.skipChildren();
+				}
+				col++;
+			}
+			if (price != L2Book.NO_TEXT && size != L2Book.NO_TEXT) {
+				book.set(bid, price, size);
+			} else {
+				// Unusual notation (exponent, very long fraction): keep the level, the checksum will not match.
+				if (priceValue == null && price != L2Book.NO_TEXT) priceValue = L2Book.toDouble(price);
+				if (sizeValue == null && size != L2Book.NO_TEXT) sizeValue = L2Book.toDouble(size);
+				if (priceValue != null && sizeValue != null) {
+					book.set(bid, priceValue.doubleValue(), sizeValue.doubleValue());
+				}
+			}
+		}
+	}
+
+	private static MarketTicker readOkxTicker(JsonParser p, Set<String> universe) throws IOException {
+		String instId = null;
+		Double last = null, open24h = null, bid = null, ask = null, high24h = null, low24h = null, vol24h = null, volCcy24h = null;
+		String ts = null;
+
+		while (p.nextToken() == JsonToken.FIELD_NAME) {
+			String field = p.currentName();
+			p.nextToken();
+			switch (field) {
+				case "instId" -> {
+					instId = p.getText();
+					if (!universe.contains(instId)) {
+						p.skipChildren();
+						skipRestOfObject(p);
+						return null;
+					}
+				}
+				case "last" -> last = readDouble(p);
+				case "open24h" -> open24h = readDouble(p);
+				case "bidPx" -> bid = readDouble(p);
+				case "askPx" -> ask = readDouble(p);
+				case "high24h" -> high24h = readDouble(p);
+				case "low24h" -> low24h = readDouble(p);
+				case "vol24h" -> vol24h = readDouble(p);
+				case "volCcy24h" -> volCcy24h = readDouble(p);
+				case "ts" -> ts = readString(p);
+				default -> p.skipChildren();
+			}
+		}
+
+		if (instId == null || last == null) {
+			return null;
+		}
+		Double change24h = null;
+		if (open24h != null && open24h > 0) {
+			change24h = ((last - open24h) / open24h) * 100.0;
+		}
+		var currencies = MarketDataService.parseInstIdCurrencies(instId);
+		return new MarketTicker(
+				instId,
+				currencies.baseCurrency(),
+				currencies.quoteCurrency(),
+				last,
+				bid,
+				ask,
+				change24h,
+				high24h,
+				low24h,
+				vol24h,
+				volCcy24h,
+				ts
+		);
+	}
+
+	/**
+	 * Parses an FX rate document of the shape shared by Frankfurter, open.er-api.com and the offline rate
+	 * files: {@code {"base": "USD", "rates": {"EUR": 0.92, ...}}}. Rates are returned as units of each
+	 * currency per one USD, rebased through the document's own USD rate when its base is another
+	 * currency. Returns an empty map when the document has no usable rates.
+	 */
+	static Map<String, Double> parseFxRates(InputStream in) throws IOException {
+		var rates = new LinkedHashMap<String, Double>();
+		String base = "USD";
+		try (var p = JSON.createParser(in)) {
+			if (p.nextToken() != JsonToken.START_OBJECT) {
+				return rates;
+			}
+			while (p.nextToken() == JsonToken.FIELD_NAME) {
+				String field = p.currentName();
+				var value = p.nextToken();
+				if (("base".equals(field) || "base_code".equals(field)) && value == JsonToken.VALUE_STRING) {
+					base = p.getText().trim().toUpperCase();
+				} else if ("rates".equals(field) && value == JsonToken.START_OBJECT) {
+					while (p.nextToken() == JsonToken.FIELD_NAME) {
+						String currency = p.currentName().trim().toUpperCase();
+						p.nextToken();
+						double rate = readPrimitiveDouble(p);
+						if (rate > 0 && !Double.isInfinite(rate)) {
+							rates.put(currency, rate);
+						}
+					}
+				} else {
+					p.skipChildren();
+				}
+			}
+		}
+		if (rates.isEmpty()) {
+			return rates;
+		}
+		rates.putIfAbsent(base, 1.0);
+		Double usd = rates.get("USD");
+		if (usd == null) {
+			return new LinkedHashMap<>();
+		}
+		if (usd != 1.0) {
+			rates.replaceAll((currency, rate) -> rate / usd);
+		}
+		return rates;
+	}
+
+	/** Advances the parser to the first element of the top-level {@code "data"} array. */
+	private static boolean moveToDataArray(JsonParser p) throws IOException {
+		if (p.nextToken() != JsonToken.START_OBJECT) {
+			return false;
+		}
+		while (p.nextToken() == JsonToken.FIELD_NAME) {
+			String field = p.currentName();
+			var value = p.nextToken();
+			if ("data".equals(field) && value == JsonToken.START_ARRAY) {
+				return true;
+			}
+			p.skipChildren();
+		}
+		return false;
+	}
+
+	private static void skipRestOfObject(JsonParser p) throws IOException {
+		while (p.nextToken() == JsonToken.FIELD_NAME) {
+			p.nextToken();
+			p.skipChildren();
+		}
+	}
+
+	private static Double readDouble(JsonParser p) throws IOException {
+		var token = p.currentToken();
+		if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+			return p.getDoubleValue();
+		}
+		if (token == JsonToken.VALUE_STRING) {
+			String text = p.getText();
+			if (text.isBlank()) return null;
+			try {
+				return Double.parseDouble(text);
+			} catch (NumberFormatException e) {
+				return null;
+			}
+		}
+		p.skipChildren();
+		return null;
+	}
+
+	private static List<Level> readLevels(JsonParser p) throws IOException {
+		if (p.currentToken() != JsonToken.START_ARRAY) {
+			p.skipChildren();
+			return List.of();
+		}
+		var levels = new ArrayList<Level>();
+		while (p.nextToken() == JsonToken.START_ARRAY) {
+			double price = Double.NaN, size = Double.NaN;
+			int col = 0;
+			while (p.nextToken() != JsonToken.END_ARRAY) {
+				if (col == 0) price = readPrimitiveDouble(p);
+				else if (col == 1) size = readPrimitiveDouble(p);
+				else p.skipChildren();
+				col++;
+			}
+			if (!Double.isNaN(price) && !Double.isNaN(size)) {
+				levels.add(new Level(price, size));
+			}
+		}
+		return levels;
+	}
+
+	/** Like {@link #readDouble} without boxing; {@code NaN} when the token is not a usable number. */
+	private static double readPrimitiveDouble(JsonParser p) throws IOException {
+		var token = p.currentToken();
+		if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+			return p.getDoubleValue();
+		}
+		if (token == JsonToken.VALUE_STRING) {
+			long decimal = L2Book.parseDecimal(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+			if (decimal != L2Book.NO_TEXT) {
+				return L2Book.toDouble(decimal);
+			}
+			var value = readDouble(p);
+			return value == null ? Double.NaN : value;
+		}
+		p.skipChildren();
+		return Double.NaN;
+	}
+
+	/** Reads a numeric string or number token as a packed decimal without materializing a String. */
+	private static long readDecimal(JsonParser p) throws IOException {
+		var token = p.currentToken();
+		if (token != JsonToken.VALUE_STRING && token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT) {
+			return L2Book.NO_TEXT;
+		}
+		return L2Book.parseDecimal(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+	}
+
+	private static String readString(JsonParser p) throws IOException {
+		var token = p.currentToken();
+		if (token == JsonToken.VALUE_NULL) return null;
+		if (token.isStructStart()) {
+			p.skipChildren();
+			return null;
+		}
+		String s = p.getText();
+		return s.isBlank() ? null : s;
+	}
+}
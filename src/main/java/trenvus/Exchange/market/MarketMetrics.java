@@ -0,0 +1,119 @@
+package trenvus.Exchange.market;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Micrometer instrumentation shared by the market services:
+ * <ul>
+ *   <li>{@code market.upstream.requests}: latency histogram per upstream endpoint and outcome</li>
+ *   <li>{@code market.upstream.errors}: failures per upstream endpoint and cause</li>
+ *   <li>{@code market.cache.requests}: hits and misses per cache</li>
+ *   <li>{@code market.refresh.duration}: background refresh passes per snapshot and outcome</li>
+ * </ul>
+ * Meters are registered on first use and kept, so the hot path is a map lookup and a record.
+ */
+final class MarketMetrics {
+	private final MeterRegistry registry;
+	private final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+	MarketMetrics(MeterRegistry registry) {
+		this.registry = registry;
+	}
+
+	MeterRegistry registry() {
+		return registry;
+	}
+
+	/** Times one upstream call. Failures are counted by cause and rethrown unchanged. */
+	<T> T upstream(String upstream, String endpoint, Supplier<T> call) {
+		long start = System.nanoTime();
+		try {
+			T value = call.get();
+			upstreamTimer(upstream, endpoint, "success").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			return value;
+		} catch (RuntimeException e) {
+			upstreamTimer(upstream, endpoint, "error").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			error(upstream, endpoint, e);
+			throw e;
+		}
+	}
+
+	void error(String upstream, String endpoint, Throwable e) {
+		counter("market.upstream.errors", "upstream", upstream, "endpoint", endpoint, "cause", cause(e)).increment();
+	}
+
+	void cache(String cache, boolean hit) {
+		counter("market.cache.requests", "cache", cache, "result", hit ? "hit" : "miss").increment();
+	}
+
+	void refresh(String snapshot, String outcome, long nanos) {
+		timers.computeIfAbsent("refresh|" + snapshot + "|" + outcome, k -> Timer.builder("market.refresh.duration")
+				.tag("snapshot", snapshot)
+				.tag("outcome", outcome)
+				.register(registry))
+				.record(nanos, TimeUnit.NANOSECONDS);
+	}
+
+	/** Coarse failure class for the error counters; wrappers from futures are looked through. */
+	static String cause(Throwable e) {
+		var t = e;
+		while ((t instanceof CompletionException || t instanceof ExecutionException) && t.getCause() != null) {
+			t = t.getCause();
+		}
+		for (var c = t; c != null; c = c.getCause()) {
+			if (c instanceof TimeoutException || c instanceof HttpTimeoutException || c instanceof SocketTimeoutException) {
+				return "timeout";
+			}
+			if (c instanceof ConnectException || c instanceof UnknownHostException) {
+				return "connect";
+			}
+			if (c instanceof JsonProcessingException) {
+				return "parse";
+			}
+			if (c instanceof UpstreamStatusException) {
+				return "http_status";
+			}
+			if (c == c.getCause()) {
+				break;
+			}
+		}
+		return t instanceof IOException || t.getCause() instanceof IOException ? "io" : "other";
+	}
+
+	private Timer upstreamTimer(String upstream, String endpoint, String outcome) {
+		return timers.computeIfAbsent(upstream + "|" + endpoint + "|" + outcome, k -> Timer.builder("market.upstream.requests")
+				.tag("upstream", upstream)
+				.tag("endpoint", endpoint)
+				.tag("outcome", outcome)
+				.publishPercentileHistogram()
+				.register(registry));
+	}
+
+	private Counter counter(String name, String... tags) {
+		return counters.computeIfAbsent(name + "|" + String.join("|", tags), k -> Counter.builder(name)
+				.tags(tags)
+				.register(registry));
+	}
+
+	/** An upstream answered with an error status; thrown from the response handlers. */
+	static final class UpstreamStatusException extends IllegalStateException {
+		UpstreamStatusException(String message) {
+			super(message);
+		}
+	}
+}
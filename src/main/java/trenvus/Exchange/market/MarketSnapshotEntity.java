@@ -0,0 +1,45 @@
+package trenvus.Exchange.market;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.Instant;
+
+@Entity
+@Table(name = "market_snapshots")
+public class MarketSnapshotEntity {
+	@Id
+	@Column(nullable = false, length = 32)
+	private String name;
+
+	@Column(nullable = false)
+	private byte[] payload;
+
+	@Column(name = "updated_at", nullable = false)
+	private Instant updatedAt;
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public byte[] getPayload() {
+		return payload;
+	}
+
+	public void setPayload(byte[] payload) {
+		this.payload = payload;
+	}
+
+	public Instant getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public void setUpdatedAt(Instant updatedAt) {
+		this.updatedAt = updatedAt;
+	}
+}
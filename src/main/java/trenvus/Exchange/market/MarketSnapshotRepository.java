@@ -0,0 +1,17 @@
+package trenvus.Exchange.market;
+
+import java.time.Instant;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface MarketSnapshotRepository extends JpaRepository<MarketSnapshotEntity, String> {
+	/** {@code pg_notify} wrapped in a select so it runs as a plain query; always returns 1. */
+	@Query(value = "select 1 from (select pg_notify(:channel, :payload)) sent", nativeQuery = true)
+	int notifyChannel(@Param("channel") String channel, @Param("payload") String payload);
+
+	/** When the row was last written, without loading its payload. */
+	@Query("select s.updatedAt from MarketSnapshotEntity s where s.name = :name")
+	Optional<Instant> findUpdatedAt(@Param("name") String name);
+}
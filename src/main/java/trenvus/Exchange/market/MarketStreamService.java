@@ -0,0 +1,263 @@
+package trenvus.Exchange.market;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import trenvus.Exchange.market.MarketDataService.MarketTicker;
+
+/**
+ * Pushes ticker and top-of-book changes to SSE subscribers. A single producer thread diffs the current
+ * ticker snapshot against the last broadcast one, serializes the delta once and hands the same bytes
+ * to every connection, so idle dashboards cost no per-client polling, filter-chain or JSON work.
+ * <p>
+ * The producer never writes to a socket: each subscriber has a short queue drained by a small writer
+ * pool, and a subscriber whose queue is still full when the next event arrives is too slow to keep up
+ * and is completed, so it reconnects and starts again from a fresh snapshot.
+ */
+@Service
+public class MarketStreamService {
+	private static final Logger logger = LoggerFactory.getLogger(MarketStreamService.class);
+
+	private final MarketDataService marketDataService;
+	private final ObjectMapper objectMapper;
+	private final long emitterTimeoutMs;
+	private final int maxSubscribers;
+	private final long heartbeatEveryTicks;
+	private final int maxPending;
+	private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+	// Counted when subscribe() accepts a connection, before it is registered on the producer thread.
+	private final AtomicInteger reserved = new AtomicInteger();
+	private final ScheduledExecutorService producer;
+	private final ExecutorService writers;
+	private final Set<DataWithMediaType> heartbeat = SseEmitter.event().comment("ping").build();
+
+	// Only touched by the producer thread.
+	private final Map<String, MarketTicker> lastBroadcast = new HashMap<>();
+	private long version = 0;
+	private long ticks = 0;
+
+	private volatile Set<DataWithMediaType> snapshotEvent = null;
+
+	public MarketStreamService(
+			MarketDataService marketDataService,
+			ObjectMapper objectMapper,
+			@Value("${MARKET_STREAM_INTERVAL_MS:1000}") long intervalMs,
+			@Value("${MARKET_STREAM_TIMEOUT_MS:1800000}") long emitterTimeoutMs,
+			@Value("${MARKET_STREAM_MAX_SUBSCRIBERS:5000}") int maxSubscribers,
+			@Value("${MARKET_STREAM_HEARTBEAT_SECONDS:15}") long heartbeatSeconds,
+			@Value("${MARKET_STREAM_MAX_PENDING:8}") int maxPending,
+			@Value("${MARKET_STREAM_WRITER_THREADS:4}") int writerThreads
+	) {
+		this.marketDataService = marketDataService;
+		this.objectMapper = objectMapper;
+		this.emitterTimeoutMs = emitterTimeoutMs;
+		this.maxSubscribers = Math.max(1, maxSubscribers);
+		long interval = Math.max(100, intervalMs);
+		this.heartbeatEveryTicks = Math.max(1, (heartbeatSeconds * 1000) / interval);
+		this.maxPending = Math.max(1, maxPending);
+		var writerCount = new AtomicInteger();
+		this.writers = Executors.newFixedThreadPool(Math.max(1, writerThreads), r -> {
+			var t = new Thread(r, "market-stream-writer-" + writerCount.incrementAndGet());
+			t.setDaemon(true);
+			return t;
+		});
+		this.producer = new ScheduledThreadPoolExecutor(1, r -> {
+			var t = new Thread(r, "market-stream");
+			t.setDaemon(true);
+			return t;
+		});
+		this.producer.scheduleWithFixedDelay(this::tick, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	void shutdown() {
+		producer.shutdownNow();
+		writers.shutdownNow();
+		for (var subscriber : subscribers) {
+			subscriber.emitter.complete();
+		}
+		subscribers.clear();
+	}
+
+	public SseEmitter subscribe() {
+		return subscribe(new SseEmitter(emitterTimeoutMs));
+	}
+
+	SseEmitter subscribe(SseEmitter emitter) {
+		if (reserved.incrementAndGet() > maxSubscribers) {
+			reserved.decrementAndGet();
+			throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "market_stream_full");
+		}
+
+		var subscriber = new Subscriber(emitter, maxPending);
+		emitter.onCompletion(() -> remove(subscriber));
+		emitter.onTimeout(() -> remove(subscriber));
+		emitter.onError(e -> remove(subscriber));
+
+		// Registered on the producer thread so the initial snapshot and later deltas never interleave.
+		try {
+			producer.execute(() -> {
+				if (subscriber.closed.get()) {
+					return;
+				}
+				var snapshot = snapshotEvent;
+				if (snapshot != null) {
+					enqueue(subscriber, snapshot);
+				}
+				subscribers.add(subscriber);
+			});
+		} catch (RejectedExecutionException e) {
+			remove(subscriber);
+			throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "market_stream_closed");
+		}
+		return emitter;
+	}
+
+	int subscriberCount() {
+		return reserved.get();
+	}
+
+	/** Subscribers the producer has registered and is broadcasting to. */
+	int registeredCount() {
+		return subscribers.size();
+	}
+
+	void tick() {
+		try {
+			ticks++;
+			if (subscribers.isEmpty()) {
+				return;
+			}
+
+			var current = marketDataService.getAllTickers();
+			var changed = new ArrayList<MarketTicker>();
+			for (var t : current) {
+				var previous = lastBroadcast.put(t.instId(), t);
+				if (previous == null || !sameQuote(previous, t)) {
+					changed.add(t);
+				}
+			}
+
+			if (!changed.isEmpty()) {
+				version++;
+				snapshotEvent = buildEvent("snapshot", current);
+				broadcast(buildEvent("tickers", changed));
+			} else if (ticks % heartbeatEveryTicks == 0) {
+				broadcast(heartbeat);
+			}
+		} catch (Exception e) {
+			logger.warn("Market stream tick failed: {}", e.toString());
+		}
+	}
+
+	private Set<DataWithMediaType> buildEvent(String name, List<MarketTicker> tickers) throws JsonProcessingException {
+		byte[] json = objectMapper.writeValueAsBytes(tickers);
+		return SseEmitter.event()
+				.id(String.valueOf(version))
+				.name(name)
+				.data(json, MediaType.APPLICATION_JSON)
+				.build();
+	}
+
+	private void broadcast(Set<DataWithMediaType> event) {
+		for (var subscriber : subscribers) {
+			enqueue(subscriber, event);
+		}
+	}
+
+	/** Queues the event for the subscriber's writer; a subscriber whose queue is full is dropped. */
+	private void enqueue(Subscriber subscriber, Set<DataWithMediaType> event) {
+		if (subscriber.closed.get()) {
+			return;
+		}
+		if (!subscriber.pending.offer(event)) {
+			remove(subscriber);
+			subscriber.emitter.complete();
+			return;
+		}
+		if (subscriber.draining.compareAndSet(false, true)) {
+			try {
+				writers.execute(() -> drain(subscriber));
+			} catch (RejectedExecutionException e) {
+				subscriber.draining.set(false);
+			}
+		}
+	}
+
+	private void drain(Subscriber subscriber) {
+		while (true) {
+			Set<DataWithMediaType> event;
+			while ((event = subscriber.pending.poll()) != null) {
+				if (subscriber.closed.get()) {
+					return;
+				}
+				try {
+					subscriber.emitter.send(event);
+				} catch (IOException | IllegalStateException e) {
+					remove(subscriber);
+					subscriber.emitter.completeWithError(e);
+					return;
+				}
+			}
+			subscriber.draining.set(false);
+			// An event queued after the last poll but before the flag was cleared has no writer yet.
+			if (subscriber.pending.isEmpty() || !subscriber.draining.compareAndSet(false, true)) {
+				return;
+			}
+		}
+	}
+
+	private void remove(Subscriber subscriber) {
+		if (subscriber.closed.compareAndSet(false, true)) {
+			subscribers.remove(subscriber);
+			subscriber.pending.clear();
+			reserved.decrementAndGet();
+		}
+	}
+
+	private static boolean sameQuote(MarketTicker a, MarketTicker b) {
+		return a.last() == b.last()
+				&& Objects.equals(a.bid(), b.bid())
+				&& Objects.equals(a.ask(), b.ask())
+				&& Objects.equals(a.change24hPercent(), b.change24hPercent());
+	}
+
+	private static final class Subscriber {
+		final SseEmitter emitter;
+		final Queue<Set<DataWithMediaType>> pending;
+		final AtomicBoolean draining = new AtomicBoolean();
+		final AtomicBoolean closed = new AtomicBoolean();
+
+		Subscriber(SseEmitter emitter, int maxPending) {
+			this.emitter = emitter;
+			this.pending = new ArrayBlockingQueue<>(maxPending);
+		}
+	}
+}
@@ -0,0 +1,284 @@
+package trenvus.Exchange.market;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import trenvus.Exchange.market.MarketDataService.MarketTicker;
+import trenvus.Exchange.market.MarketDataService.OrderBook;
+
+/**
+ * Holds one long-lived subscription to the OKX public WebSocket ({@code tickers} and {@code books}
+ * channels) for the configured instruments. Tickers are kept as the latest push; books are maintained
+ * incrementally in an {@link L2Book} per instrument and resubscribed when a sequence gap or checksum
+ * mismatch shows the local copy drifted. Readers get {@code null} once a value is older than
+ * {@code staleAfter}, which sends them to the REST path. A socket that stays silent after a ping is
+ * treated as half-open: it is aborted and reconnected like any other dropped connection.
+ */
+final class OkxLiveFeed implements WebSocket.Listener {
+	private static final Logger log = LoggerFactory.getLogger(OkxLiveFeed.class);
+	private static final Duration PING_INTERVAL = Duration.ofSeconds(20);
+	private static final Duration PONG_TIMEOUT = Duration.ofSeconds(5);
+	private static final long MAX_RECONNECT_DELAY_MS = 30_000;
+
+	private final URI uri;
+	private final List<String> instIds;
+	private final Set<String> universe;
+	private final long staleAfterNanos;
+	private final long pingIntervalNanos;
+	private final long pongTimeoutNanos;
+	private final HttpClient httpClient;
+	private final ScheduledExecutorService scheduler;
+
+	private final ConcurrentHashMap<String, Live<MarketTicker>> tickers = new ConcurrentHashMap<>();
+	private final ConcurrentHashMap<String, L2Book> books = new ConcurrentHashMap<>();
+	private final StringBuilder partial = new StringBuilder();
+
+	private volatile WebSocket socket;
+	private volatile boolean running;
+	private volatile long lastMessageAt;
+	private volatile long pingSentAt;
+	private int reconnectAttempts;
+	private CompletableFuture<?> pendingSend = CompletableFuture.completedFuture(null);
+
+	OkxLiveFeed(URI uri, List<String> instIds, Duration staleAfter) {
+		this(uri, instIds, staleAfter, PING_INTERVAL, PONG_TIMEOUT);
+	}
+
+	OkxLiveFeed(URI uri, List<String> instIds, Duration staleAfter, Duration pingInterval, Duration pongTimeout) {
+		this.uri = uri;
+		this.instIds = List.copyOf(instIds);
+		this.universe = Set.copyOf(instIds);
+		this.staleAfterNanos = staleAfter.toNanos();
+		this.pingIntervalNanos = pingInterval.toNanos();
+		this.pongTimeoutNanos = pongTimeout.toNanos();
+		this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+		this.scheduler = new ScheduledThreadPoolExecutor(1, r -> {
+			var t = new Thread(r, "okx-ws");
+			t.setDaemon(true);
+			return t;
+		});
+	}
+
+	void start() {
+		if (running) {
+			return;
+		}
+		running = true;
+		scheduler.execute(this::connect);
+		long checkNanos = Math.min(pingIntervalNanos, pongTimeoutNanos);
+		scheduler.scheduleWithFixedDelay(this::keepAlive, checkNanos, checkNanos, TimeUnit.NANOSECONDS);
+	}
+
+	void stop() {
+		running = false;
+		scheduler.shutdownNow();
+		var ws = socket;
+		socket = null;
+		if (ws != null) {
+			ws.abort();
+		}
+	}
+
+	boolean isConnected() {
+		var ws = socket;
+		return ws != null && !ws.isInputClosed() && !ws.isOutputClosed() && !pongOverdue(System.nanoTime());
+	}
+
+	/** Latest pushed ticker for the instId, or {@code null} when none was received or it went stale. */
+	MarketTicker ticker(String instId) {
+		return fresh(tickers.get(instId));
+	}
+
+	/** Top {@code depth} levels of the live book, or {@code null} when it is not in sync or went stale. */
+	OrderBook book(String instId, int depth) {
+		var book = books.get(instId);
+		if (book == null || book.seqId() < 0 || book.isEmpty() || System.nanoTime() - book.updatedAtNanos() > staleAfterNanos) {
+			return null;
+		}
+		return book.top(depth);
+	}
+
+	/** The live engine for the instId (may be empty or out of sync; check {@link #book} for a usable view). */
+	L2Book l2Book(String instId) {
+		return books.get(instId);
+	}
+
+	private <T> T fresh(Live<T> live) {
+		if (live == null || System.nanoTime() - live.receivedAt() > staleAfterNanos) {
+			return null;
+		}
+		return live.value();
+	}
+
+	private void connect() {
+		if (!running) {
+			return;
+		}
+		httpClient.newWebSocketBuilder()
+				.connectTimeout(Duration.ofSeconds(10))
+				.buildAsync(uri, this)
+				.whenComplete((ws, ex) -> {
+					if (ex != null) {
+						log.warn("OKX WebSocket connect failed: {}", ex.toString());
+						scheduleReconnect();
+					}
+				});
+	}
+
+	private void scheduleReconnect() {
+		socket = null;
+		if (!running || scheduler.isShutdown()) {
+			return;
+		}
+		long delay = Math.min(MAX_RECONNECT_DELAY_MS, 1000L << Math.min(5, reconnectAttempts++));
+		scheduler.schedule(this::connect, delay, TimeUnit.MILLISECONDS);
+	}
+
+	private void keepAlive() {
+		var ws = socket;
+		if (ws == null) {
+			return;
+		}
+		long now = System.nanoTime();
+		if (pongOverdue(now)) {
+			log.warn("OKX WebSocket sent nothing within {}ms of a ping, reconnecting", TimeUnit.NANOSECONDS.toMillis(pongTimeoutNanos));
+			socket = null;
+			ws.abort();
+			scheduleReconnect();
+			return;
+		}
+		// OKX drops connections that stay silent for 30s; "ping" is answered with a plain "pong".
+		if (pingSentAt == 0 && now - lastMessageAt > pingIntervalNanos) {
+			pingSentAt = now;
+			send(ws, "ping");
+		}
+	}
+
+	/** A ping is outstanding and nothing, not even the "pong", has arrived within the timeout. */
+	private boolean pongOverdue(long now) {
+		long sentAt = pingSentAt;
+		return sentAt != 0 && now - sentAt > pongTimeoutNanos;
+	}
+
+	private String subscribeMessage() {
+		var args = new StringBuilder();
+		for (var instId : instIds) {
+			if (args.length() > 0) args.append(',');
+			args.append("{\"channel\":\"tickers\",\"instId\":\"").append(instId).append("\"},");
+			args.append("{\"channel\":\"books\",\"instId\":\"").append(instId).append("\"}");
+		}
+		return "{\"op\":\"subscribe\",\"args\":[" + args + "]}";
+	}
+
+	/** Drops the local book and asks OKX for a fresh snapshot of it. */
+	private void resync(String instId) {
+		var book = books.get(instId);
+		if (book != null) {
+			book.clear();
+		}
+		var ws = socket;
+		if (ws == null) {
+			return;
+		}
+		String arg = "{\"channel\":\"books\",\"instId\":\"" + instId + "\"}";
+		log.info("OKX book {} out of sync, resubscribing", instId);
+		send(ws, "{\"op\":\"unsubscribe\",\"args\":[" + arg + "]}");
+		send(ws, "{\"op\":\"subscribe\",\"args\":[" + arg + "]}");
+	}
+
+	@Override
+	public void onOpen(WebSocket webSocket) {
+		for (var book : books.values()) {
+			book.clear();
+		}
+		socket = webSocket;
+		reconnectAttempts = 0;
+		lastMessageAt = System.nanoTime();
+		pingSentAt = 0;
+		log.info("OKX WebSocket connected to {} for {} instruments", uri, instIds.size());
+		send(webSocket, subscribeMessage());
+		webSocket.request(1);
+	}
+
+	@Override
+	public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+		partial.append(data);
+		if (last) {
+			String message = partial.toString();
+			partial.setLength(0);
+			lastMessageAt = System.nanoTime();
+			pingSentAt = 0;
+			handle(message);
+		}
+		webSocket.request(1);
+		return null;
+	}
+
+	@Override
+	public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+		log.warn("OKX WebSocket closed: status={} reason={}", statusCode, reason);
+		partial.setLength(0);
+		// A socket aborted by keepAlive is already on the reconnect path
+		if (socket == webSocket) {
+			scheduleReconnect();
+		}
+		return null;
+	}
+
+	@Override
+	public void onError(WebSocket webSocket, Throwable error) {
+		log.warn("OKX WebSocket error: {}", error.toString());
+		partial.setLength(0);
+		if (socket == webSocket) {
+			scheduleReconnect();
+		}
+	}
+
+	void handle(String message) {
+		if ("pong".equals(message)) {
+			return;
+		}
+		try {
+			var push = MarketJsonParsers.parseOkxPush(message, universe, this::bookFor);
+			if (push == null) {
+				return;
+			}
+			if ("error".equals(push.event())) {
+				log.warn("OKX WebSocket error event: {}", push.message());
+				return;
+			}
+			if (push.ticker() != null) {
+				tickers.put(push.ticker().instId(), new Live<>(push.ticker(), System.nanoTime()));
+			}
+			if (push.book() == MarketJsonParsers.BookSync.OUT_OF_SYNC) {
+				resync(push.instId());
+			}
+		} catch (Exception e) {
+			log.debug("Ignoring unparseable OKX WebSocket message: {}", e.toString());
+		}
+	}
+
+	/** The JDK client rejects a send while the previous one is pending, so sends are chained. */
+	private synchronized void send(WebSocket ws, String text) {
+		pendingSend = pendingSend
+				.handle((ignored, error) -> null)
+				.thenCompose(ignored -> ws.sendText(text, true));
+	}
+
+	private L2Book bookFor(String instId) {
+		return books.computeIfAbsent(instId, L2Book::new);
+	}
+
+	private record Live<T>(T value, long receivedAt) {}
+}
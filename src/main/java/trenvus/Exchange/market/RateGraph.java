@@ -0,0 +1,110 @@
+package trenvus.Exchange.market;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import trenvus.Exchange.market.MarketDataService.CrossRate;
+import trenvus.Exchange.market.MarketDataService.MarketTicker;
+
+/**
+ * Currency graph over one ticker snapshot. Every ticker adds an edge each way (last price and its
+ * inverse), and fixed pegs tie USDT and TRV to USD, so any two currencies reachable through the
+ * snapshot can be priced. The best path is the one with the fewest hops, where a peg hop costs a little
+ * more than a market hop so real quotes win over assumed ones. The graph is immutable; resolved pairs
+ * are memoized for as long as the snapshot is served.
+ */
+final class RateGraph {
+	static final int MAX_HOPS = 4;
+
+	/** 1 USDT and 1 TRV are taken as 1 USD. */
+	private static final List<String[]> PEGS = List.of(
+			new String[] {"USDT", "USD"},
+			new String[] {"TRV", "USD"}
+	);
+	private static final double MARKET_COST = 1.0;
+	private static final double PEG_COST = 1.1;
+
+	private final Map<String, List<Edge>> edges = new HashMap<>();
+	private final Map<String, Optional<CrossRate>> resolved = new ConcurrentHashMap<>();
+
+	RateGraph(List<MarketTicker> tickers) {
+		for (var ticker : tickers) {
+			Double last = ticker.last();
+			if (ticker.baseCurrency() == null || ticker.quoteCurrency() == null || last == null || !(last > 0) || Double.isInfinite(last)) {
+				continue;
+			}
+			addEdge(ticker.baseCurrency(), ticker.quoteCurrency(), last, MARKET_COST);
+		}
+		for (var peg : PEGS) {
+			addEdge(peg[0], peg[1], 1.0, PEG_COST);
+		}
+	}
+
+	/** Currencies that appear in the graph, sorted. */
+	Set<String> currencies() {
+		return Collections.unmodifiableSet(new TreeSet<>(edges.keySet()));
+	}
+
+	/** Units of {@code quote} per one {@code base}, or empty when no path of at most {@link #MAX_HOPS} exists. */
+	Optional<CrossRate> rate(String base, String quote) {
+		return resolved.computeIfAbsent(base + "-" + quote, k -> search(base, quote));
+	}
+
+	private void addEdge(String from, String to, double rate, double cost) {
+		if (from.equals(to)) {
+			return;
+		}
+		edges.computeIfAbsent(from, k -> new ArrayList<>()).add(new Edge(to, rate, cost));
+		edges.computeIfAbsent(to, k -> new ArrayList<>()).add(new Edge(from, 1 / rate, cost));
+	}
+
+	private Optional<CrossRate> search(String base, String quote) {
+		if (!edges.containsKey(base) || !edges.containsKey(quote)) {
+			return Optional.empty();
+		}
+		if (base.equals(quote)) {
+			return Optional.of(new CrossRate(base + "-" + quote, base, quote, 1.0, List.of(base)));
+		}
+		var best = new HashMap<String, Double>();
+		var queue = new PriorityQueue<Path>((a, b) -> Double.compare(a.cost, b.cost));
+		queue.add(new Path(base, 1.0, 0, 0, null));
+		best.put(base, 0.0);
+		while (!queue.isEmpty()) {
+			var path = queue.poll();
+			if (path.currency.equals(quote)) {
+				return Optional.of(new CrossRate(base + "-" + quote, base, quote, path.rate, path.currencies()));
+			}
+			if (path.hops >= MAX_HOPS || path.cost > best.getOrDefault(path.currency, Double.MAX_VALUE)) {
+				continue;
+			}
+			for (var edge : edges.getOrDefault(path.currency, List.of())) {
+				double cost = path.cost + edge.cost;
+				if (cost < best.getOrDefault(edge.to, Double.MAX_VALUE)) {
+					best.put(edge.to, cost);
+					queue.add(new Path(edge.to, path.rate * edge.rate, cost, path.hops + 1, path));
+				}
+			}
+		}
+		return Optional.empty();
+	}
+
+	private record Edge(String to, double rate, double cost) {}
+
+	private record Path(String currency, double rate, double cost, int hops, Path previous) {
+		List<String> currencies() {
+			var out = new ArrayList<String>(hops + 1);
+			for (var p = this; p != null; p = p.previous) {
+				out.add(p.currency);
+			}
+			Collections.reverse(out);
+			return out;
+		}
+	}
+}
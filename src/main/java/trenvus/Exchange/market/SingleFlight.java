@@ -0,0 +1,47 @@
+package trenvus.Exchange.market;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent loads of the same key into one call: the first caller runs the loader, callers
+ * arriving while it is in flight wait on the same future. Different keys never block each other.
+ */
+final class SingleFlight<K, V> {
+	private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+	V load(K key, Supplier<V> loader) {
+		var mine = new CompletableFuture<V>();
+		var existing = inFlight.putIfAbsent(key, mine);
+		if (existing != null) {
+			return await(existing);
+		}
+
+		try {
+			V value = loader.get();
+			mine.complete(value);
+			return value;
+		} catch (RuntimeException | Error e) {
+			mine.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, mine);
+		}
+	}
+
+	int inFlightCount() {
+		return inFlight.size();
+	}
+
+	private static <V> V await(CompletableFuture<V> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException re) throw re;
+			if (e.getCause() instanceof Error err) throw err;
+			throw e;
+		}
+	}
+}
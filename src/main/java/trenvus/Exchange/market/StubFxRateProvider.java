@@ -0,0 +1,26 @@
+package trenvus.Exchange.market;
+
+import java.util.Map;
+
+/** Fixed demo rates. Never fails, so it is the usual last entry of {@code MARKET_FX_SOURCES}. */
+final class StubFxRateProvider implements FxRateProvider {
+	private static final Map<String, Double> RATES = Map.of(
+			"USD", 1.0,
+			"EUR", 0.92,
+			"GBP", 0.79,
+			"JPY", 149.50,
+			"CNY", 7.19,
+			"CHF", 0.88,
+			"BRL", 5.05
+	);
+
+	@Override
+	public String name() {
+		return "stub";
+	}
+
+	@Override
+	public Map<String, Double> usdRates() {
+		return RATES;
+	}
+}
@@ -156,6 +156,7 @@ public class SecurityConfig {
 		var config = new CorsConfiguration();
 		config.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
 		config.setAllowedHeaders(List.of("*"));
+		config.setExposedHeaders(List.of("ETag", "X-Market-Data-Stale"));
 		config.setAllowCredentials(true);
 
 		if (originsRaw != null && !originsRaw.isBlank()) {
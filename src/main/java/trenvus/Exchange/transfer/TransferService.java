@@ -1,6 +1,5 @@
 package trenvus.Exchange.transfer;
 
-import java.util.List;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import trenvus.Exchange.tx.TransactionEntity;
@@ -8,20 +7,17 @@ import trenvus.Exchange.tx.TransactionRepository;
 import trenvus.Exchange.tx.TransactionType;
 import trenvus.Exchange.user.UserRepository;
 import trenvus.Exchange.wallet.Currency;
-import trenvus.Exchange.wallet.WalletRepository;
 import trenvus.Exchange.wallet.WalletService;
 
 @Service
 public class TransferService {
 	private final UserRepository users;
 	private final WalletService walletService;
-	private final WalletRepository wallets;
 	private final TransactionRepository transactions;
 
-	public TransferService(UserRepository users, WalletService walletService, WalletRepository wallets, TransactionRepository transactions) {
+	public TransferService(UserRepository users, WalletService walletService, TransactionRepository transactions) {
 		this.users = users;
 		this.walletService = walletService;
-		this.wallets = wallets;
 		this.transactions = transactions;
 	}
 
@@ -46,31 +42,15 @@ public class TransferService {
 			throw new IllegalArgumentException("Amount must be greater than zero");
 		}
 
-		walletService.ensureUserWallets(fromUserId);
-		walletService.ensureUserWallets(toUserId);
-
-		Long first = fromUserId < toUserId ? fromUserId : toUserId;
-		Long second = fromUserId < toUserId ? toUserId : fromUserId;
-
-		var firstLocked = wallets.findForUpdate(first, List.of(Currency.TRV));
-		var secondLocked = wallets.findForUpdate(second, List.of(Currency.TRV));
-
-		var fromWallet = (fromUserId.equals(first) ? firstLocked : secondLocked).stream()
-				.filter(w -> w.getCurrency() == Currency.TRV)
-				.findFirst()
-				.orElseThrow();
-		var toWallet = (toUserId.equals(first) ? firstLocked : secondLocked).stream()
-				.filter(w -> w.getCurrency() == Currency.TRV)
-				.findFirst()
-				.orElseThrow();
-
-		if (fromWallet.getBalanceCents() < amountTrvCents) {
-			throw new IllegalArgumentException("Insufficient balance");
+		// Touch rows in user id order so opposite transfers cannot deadlock; a short balance rolls back the credit
+		if (fromUserId < toUserId) {
+			debitTrv(fromUserId, amountTrvCents);
+			walletService.credit(toUserId, Currency.TRV, amountTrvCents);
+		} else {
+			walletService.credit(toUserId, Currency.TRV, amountTrvCents);
+			debitTrv(fromUserId, amountTrvCents);
 		}
 
-		fromWallet.setBalanceCents(fromWallet.getBalanceCents() - amountTrvCents);
-		toWallet.setBalanceCents(Math.addExact(toWallet.getBalanceCents(), amountTrvCents));
-
 		var outTx = new TransactionEntity();
 		outTx.setUserId(fromUserId);
 		outTx.setType(TransactionType.TRANSFER_TRV_OUT);
@@ -89,5 +69,11 @@ public class TransferService {
 		return new TransferResult(snapshot.usdCents(), snapshot.trvCents(), outTx.getId(), 0);
 	}
 
+	private void debitTrv(Long userId, long amountTrvCents) {
+		if (!walletService.debit(userId, Currency.TRV, amountTrvCents)) {
+			throw new IllegalArgumentException("Insufficient balance");
+		}
+	}
+
 	public record TransferResult(long usdCents, long trvCents, Long transactionId, long feeTrvCents) {}
 }
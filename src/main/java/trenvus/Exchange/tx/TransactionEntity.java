@@ -127,4 +127,8 @@ public class TransactionEntity {
 	public Instant getCreatedAt() {
 		return createdAt;
 	}
+
+	public void setCreatedAt(Instant createdAt) {
+		this.createdAt = createdAt;
+	}
 }
@@ -8,5 +8,7 @@ public interface UserRepository extends JpaRepository<UserEntity, Long> {
 	Optional<UserEntity> findByNickname(String nickname);
 	boolean existsByEmail(String email);
 	boolean existsByNickname(String nickname);
+	Optional<UserEntity> findFirstByRoleOrderByIdAsc(UserRole role);
+	Optional<UserEntity> findFirstByEmailContainingIgnoreCaseOrderByIdAsc(String fragment);
 }
 
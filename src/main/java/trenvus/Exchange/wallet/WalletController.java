@@ -12,6 +12,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import trenvus.Exchange.exchange.ExchangeService;
+import trenvus.Exchange.exchange.FeeTreasury;
 import trenvus.Exchange.money.MoneyCents;
 
 @RestController
@@ -20,16 +21,18 @@ import trenvus.Exchange.money.MoneyCents;
 public class WalletController {
 	private final WalletService walletService;
 	private final ExchangeService exchangeService;
+	private final FeeTreasury feeTreasury;
 
-	public WalletController(WalletService walletService, ExchangeService exchangeService) {
+	public WalletController(WalletService walletService, ExchangeService exchangeService, FeeTreasury feeTreasury) {
 		this.walletService = walletService;
 		this.exchangeService = exchangeService;
+		this.feeTreasury = feeTreasury;
 	}
 
 	@GetMapping
 	public ResponseEntity<WalletResponse> getWallet(@AuthenticationPrincipal Jwt jwt) {
 		Long userId = Long.valueOf(jwt.getSubject());
-		var snapshot = walletService.getSnapshot(userId);
+		var snapshot = feeTreasury.withPendingFees(userId, walletService.getSnapshot(userId));
 		return ResponseEntity.ok(new WalletResponse(snapshot.usdCents(), snapshot.trvCents()));
 	}
 
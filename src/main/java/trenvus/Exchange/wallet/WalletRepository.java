@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -16,5 +17,21 @@ public interface WalletRepository extends JpaRepository<WalletEntity, Long> {
 	@Lock(LockModeType.PESSIMISTIC_WRITE)
 	@Query("select w from WalletEntity w where w.userId = :userId and w.currency in :currencies")
 	List<WalletEntity> findForUpdate(@Param("userId") Long userId, @Param("currencies") List<Currency> currencies);
-}
 
+	/** Balances read straight from the table, never from entities already loaded in the session. */
+	@Query("select w.currency, w.balanceCents from WalletEntity w where w.userId = :userId")
+	List<Object[]> findBalances(@Param("userId") Long userId);
+
+	/**
+	 * Adds {@code delta} unless that would take the balance below zero; returns 0 when the balance is
+	 * short or the wallet does not exist. A bulk update bypasses the persistence context, so wallets
+	 * already loaded in the session keep their old balance and version: read balances back with
+	 * {@link #findBalances}, and a stale entity that is modified later fails its version check instead
+	 * of overwriting the update. The context is deliberately not cleared, which would detach the
+	 * caller's other entities.
+	 */
+	@Modifying(flushAutomatically = true)
+	@Query("update WalletEntity w set w.balanceCents = w.balanceCents + :delta, w.version = w.version + 1 "
+			+ "where w.userId = :userId and w.currency = :currency and w.balanceCents + :delta >= 0")
+	int adjust(@Param("userId") Long userId, @Param("currency") Currency currency, @Param("delta") long delta);
+}
@@ -1,48 +1,119 @@
 package trenvus.Exchange.wallet;
 
+import java.util.EnumMap;
+import java.util.List;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+/**
+ * Wallet access. Wallets are provisioned once, when the account is created (and backfilled by V22
+ * for older accounts). Debits and credits are single conditional UPDATEs checked by their row count,
+ * so they hold the row lock only for the rest of the caller's transaction and never read the row
+ * first; callers read both balances once afterwards with {@link #getSnapshot}. {@link #lock} remains
+ * for edits that need the current balances.
+ */
 @Service
 public class WalletService {
+	private static final List<Currency> CURRENCIES = List.of(Currency.USD, Currency.TRV);
+
 	private final WalletRepository wallets;
 
 	public WalletService(WalletRepository wallets) {
 		this.wallets = wallets;
 	}
 
+	/** Creates whichever of the user's wallets are missing; called when an account is created. */
 	@Transactional
 	public void ensureUserWallets(Long userId) {
-		getOrCreate(userId, Currency.USD);
-		getOrCreate(userId, Currency.TRV);
+		var existing = byCurrency(wallets.findByUserId(userId));
+		for (var currency : CURRENCIES) {
+			if (!existing.containsKey(currency)) {
+				create(userId, currency);
+			}
+		}
+	}
+
+	/**
+	 * Locks the user's wallets in {@code currencies} for update. A wallet that does not exist yet is
+	 * created first, which costs a second round trip only for accounts that predate provisioning.
+	 */
+	@Transactional
+	public EnumMap<Currency, WalletEntity> lock(Long userId, List<Currency> currencies) {
+		var locked = byCurrency(wallets.findForUpdate(userId, currencies));
+		if (!locked.keySet().containsAll(currencies)) {
+			ensureUserWallets(userId);
+			locked = byCurrency(wallets.findForUpdate(userId, currencies));
+		}
+		return locked;
 	}
 
+	/**
+	 * Subtracts {@code amountCents} if the balance covers it; false when it does not, including when the
+	 * wallet does not exist.
+	 */
 	@Transactional
+	public boolean debit(Long userId, Currency currency, long amountCents) {
+		return adjust(userId, currency, Math.negateExact(amountCents));
+	}
+
+	/** Adds {@code amountCents}, creating the wallet if needed. */
+	@Transactional
+	public void credit(Long userId, Currency currency, long amountCents) {
+		if (!adjust(userId, currency, amountCents)) {
+			ensureUserWallets(userId);
+			if (!adjust(userId, currency, amountCents)) {
+				throw new IllegalStateException("Wallet not found");
+			}
+		}
+	}
+
+	@Transactional(readOnly = true)
 	public WalletSnapshot getSnapshot(Long userId) {
-		ensureUserWallets(userId);
-		var list = wallets.findByUserId(userId);
-		long usd = list.stream().filter(w -> w.getCurrency() == Currency.USD).findFirst().map(WalletEntity::getBalanceCents).orElse(0L);
-		long trv = list.stream().filter(w -> w.getCurrency() == Currency.TRV).findFirst().map(WalletEntity::getBalanceCents).orElse(0L);
+		long usd = 0;
+		long trv = 0;
+		for (var row : wallets.findBalances(userId)) {
+			long cents = ((Number) row[1]).longValue();
+			if (row[0] == Currency.USD) {
+				usd = cents;
+			} else if (row[0] == Currency.TRV) {
+				trv = cents;
+			}
+		}
 		return new WalletSnapshot(usd, trv);
 	}
 
-	private WalletEntity getOrCreate(Long userId, Currency currency) {
-		var existing = wallets.findByUserIdAndCurrency(userId, currency);
-		if (existing.isPresent()) {
-			return existing.get();
-		}
+	private boolean adjust(Long userId, Currency currency, long deltaCents) {
+		return wallets.adjust(userId, currency, deltaCents) == 1;
+	}
 
+	private void create(Long userId, Currency currency) {
 		try {
 			var wallet = new WalletEntity();
 			wallet.setUserId(userId);
 			wallet.setCurrency(currency);
 			wallet.setBalanceCents(0L);
-			return wallets.save(wallet);
+			wallets.save(wallet);
 		} catch (DataIntegrityViolationException ignored) {
-			return wallets.findByUserIdAndCurrency(userId, currency).orElseThrow();
+			// Created concurrently by another request
 		}
 	}
 
-	public record WalletSnapshot(long usdCents, long trvCents) {}
+	private static EnumMap<Currency, WalletEntity> byCurrency(List<WalletEntity> list) {
+		var map = new EnumMap<Currency, WalletEntity>(Currency.class);
+		for (var w : list) {
+			map.put(w.getCurrency(), w);
+		}
+		return map;
+	}
+
+	private static long balance(WalletEntity wallet) {
+		return wallet == null ? 0L : wallet.getBalanceCents();
+	}
+
+	public record WalletSnapshot(long usdCents, long trvCents) {
+		public static WalletSnapshot of(WalletEntity usd, WalletEntity trv) {
+			return new WalletSnapshot(balance(usd), balance(trv));
+		}
+	}
 }
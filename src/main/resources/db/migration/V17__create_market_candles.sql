@@ -0,0 +1,12 @@
+-- Candles OHLCV agregados localmente (1m/5m/1H/1D) e preenchidos com o histórico da OKX
+CREATE TABLE market_candles (
+    inst_id VARCHAR(32) NOT NULL,
+    bar VARCHAR(8) NOT NULL,
+    open_time BIGINT NOT NULL,
+    open DOUBLE PRECISION NOT NULL,
+    high DOUBLE PRECISION NOT NULL,
+    low DOUBLE PRECISION NOT NULL,
+    close DOUBLE PRECISION NOT NULL,
+    volume DOUBLE PRECISION NOT NULL DEFAULT 0,
+    PRIMARY KEY (inst_id, bar, open_time)
+);
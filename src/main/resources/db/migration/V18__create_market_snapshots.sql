@@ -0,0 +1,6 @@
+-- Checkpoints compactados (JSON + gzip) dos snapshots de mercado, lidos na inicialização para warm start
+CREATE TABLE market_snapshots (
+    name VARCHAR(32) PRIMARY KEY,
+    payload BYTEA NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
@@ -0,0 +1,2 @@
+-- Fee treasury lookup: oldest account with a given role
+CREATE INDEX IF NOT EXISTS idx_users_role ON users(role, id);
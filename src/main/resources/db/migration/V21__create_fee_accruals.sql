@@ -0,0 +1,13 @@
+-- Conversion fees are journaled here and settled into the treasury wallet in batches
+CREATE TABLE fee_accruals (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    treasury_user_id BIGINT NOT NULL,
+    source_user_id BIGINT,
+    usd_cents BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    settled_at TIMESTAMP,
+    transaction_id BIGINT
+);
+
+CREATE INDEX idx_fee_accruals_pending ON fee_accruals(id) WHERE settled_at IS NULL;
+CREATE INDEX idx_fee_accruals_pending_treasury ON fee_accruals(treasury_user_id, id) WHERE settled_at IS NULL;
@@ -0,0 +1,6 @@
+-- Wallets are now created with the account; backfill them for accounts that never had one
+INSERT INTO wallets (user_id, currency, balance_cents, version)
+SELECT u.id, c.currency, 0, 0
+FROM users u
+CROSS JOIN (VALUES ('USD'), ('TRV')) AS c(currency)
+ON CONFLICT (user_id, currency) DO NOTHING;
@@ -1,5 +1,8 @@
 package trenvus.Exchange.exchange;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -7,6 +10,7 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.transaction.annotation.Transactional;
 import trenvus.Exchange.user.UserEntity;
 import trenvus.Exchange.user.UserRepository;
+import trenvus.Exchange.user.UserRole;
 import trenvus.Exchange.wallet.WalletService;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -24,6 +28,15 @@ class ExchangeServiceTests {
 	@Autowired
 	private UserRepository users;
 
+	@Autowired
+	private FeeTreasuryResolver feeTreasuryResolver;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
 	@Test
 	void depositUsd_rejectsAmountBelowMinimum() {
 		var userId = createUser("user0@trenvus.local");
@@ -123,6 +136,37 @@ class ExchangeServiceTests {
 		assertTrue(ex.getMessage().toLowerCase().contains("saldo"));
 	}
 
+	@Test
+	void convertUsdToTrv_updatesWalletsWithoutLoadingThem() {
+		var userId = createUser("user8@trenvus.local");
+		walletService.ensureUserWallets(userId);
+		exchangeService.depositUsd(userId, 2_000);
+		var admin = new UserEntity();
+		admin.setEmail("treasury8@trenvus.local");
+		admin.setPasswordHash("test");
+		admin.setRole(UserRole.ADMIN);
+		users.save(admin);
+		// Resolve the treasury up front so the conversion accrues its fee without a users query
+		feeTreasuryResolver.invalidate();
+		assertNotNull(feeTreasuryResolver.treasuryUserId());
+		entityManager.flush();
+		entityManager.clear();
+
+		var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		var result = exchangeService.convertUsdToTrv(userId, 1_000, "k1");
+		entityManager.flush();
+		feeTreasuryResolver.invalidate();
+
+		assertEquals(990, result.usdCents());
+		assertEquals(1_000, result.trvCents());
+		// The conversion itself is three statements: the USD debit, the TRV credit and the transaction insert.
+		// The idempotency key adds its lookup, the fee adds its accrual insert and the response reads both
+		// balances in one select: 1 + 3 + 1 + 1. No wallet row is ever loaded as an entity.
+		assertEquals(0, statistics.getEntityLoadCount());
+		assertEquals(6, statistics.getPrepareStatementCount());
+	}
+
 	private Long createUser(String email) {
 		var user = new UserEntity();
 		user.setEmail(email);
@@ -0,0 +1,109 @@
+package trenvus.Exchange.exchange;
+
+import java.util.Optional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import trenvus.Exchange.admin.AdminUserService;
+import trenvus.Exchange.user.UserEntity;
+import trenvus.Exchange.user.UserRepository;
+import trenvus.Exchange.user.UserRole;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class FeeTreasuryResolverTests {
+	@Autowired
+	private FeeTreasuryResolver feeTreasury;
+
+	@Autowired
+	private AdminUserService adminUsers;
+
+	@Autowired
+	private UserRepository users;
+
+	@BeforeEach
+	@AfterEach
+	void resetCache() {
+		// The resolver is a singleton; never leak ids of rolled-back users into other tests
+		feeTreasury.invalidate();
+	}
+
+	@Test
+	void setUserRole_keepsCachedTreasuryUntilCommit() {
+		var userId = createUser("treasury-1@trenvus.local", UserRole.USER);
+		var before = feeTreasury.treasuryUserId();
+
+		adminUsers.setUserRole(userId, UserRole.ADMIN);
+
+		// The test transaction never commits, so the role change must not reach the cache
+		assertEquals(before, feeTreasury.treasuryUserId());
+	}
+
+	@Test
+	void invalidateAfterCommit_resolvesNewAdminOnlyAfterCommit() {
+		var repository = mock(UserRepository.class);
+		when(repository.findFirstByRoleOrderByIdAsc(UserRole.ADMIN)).thenReturn(Optional.of(user(7L)));
+		var resolver = new FeeTreasuryResolver(repository, "", 300);
+		assertEquals(7L, resolver.treasuryUserId());
+
+		when(repository.findFirstByRoleOrderByIdAsc(UserRole.ADMIN)).thenReturn(Optional.of(user(3L)));
+		var synchronizations = TransactionSynchronizationManager.getSynchronizations().size();
+		resolver.invalidateAfterCommit();
+		assertEquals(7L, resolver.treasuryUserId());
+
+		var registered = TransactionSynchronizationManager.getSynchronizations();
+		assertEquals(synchronizations + 1, registered.size());
+		registered.get(registered.size() - 1).afterCommit();
+		assertEquals(3L, resolver.treasuryUserId());
+	}
+
+	@Test
+	void treasuryUserId_reResolvesAfterTtl() throws InterruptedException {
+		var repository = mock(UserRepository.class);
+		when(repository.findFirstByRoleOrderByIdAsc(UserRole.ADMIN)).thenReturn(Optional.of(user(7L)));
+		var resolver = new FeeTreasuryResolver(repository, "", 1);
+		assertEquals(7L, resolver.treasuryUserId());
+
+		when(repository.findFirstByRoleOrderByIdAsc(UserRole.ADMIN)).thenReturn(Optional.of(user(3L)));
+		assertEquals(7L, resolver.treasuryUserId());
+
+		Thread.sleep(1_100);
+		assertEquals(3L, resolver.treasuryUserId());
+		verify(repository, times(2)).findFirstByRoleOrderByIdAsc(UserRole.ADMIN);
+	}
+
+	@Test
+	void treasuryUserId_prefersOldestAdmin() {
+		var older = createUser("treasury-2@trenvus.local", UserRole.ADMIN);
+		var newer = createUser("treasury-3@trenvus.local", UserRole.ADMIN);
+		feeTreasury.invalidate();
+
+		var resolved = feeTreasury.treasuryUserId();
+		assertNotNull(resolved);
+		assertNotEquals(newer, resolved);
+		assertTrue(resolved <= older);
+	}
+
+	private static UserEntity user(Long id) {
+		var user = new UserEntity();
+		user.setId(id);
+		return user;
+	}
+
+	private Long createUser(String email, UserRole role) {
+		var user = new UserEntity();
+		user.setEmail(email);
+		user.setPasswordHash("test");
+		user.setRole(role);
+		return users.save(user).getId();
+	}
+}
@@ -0,0 +1,111 @@
+package trenvus.Exchange.exchange;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+import trenvus.Exchange.admin.AdminUserService;
+import trenvus.Exchange.tx.TransactionRepository;
+import trenvus.Exchange.tx.TransactionType;
+import trenvus.Exchange.user.UserEntity;
+import trenvus.Exchange.user.UserRepository;
+import trenvus.Exchange.user.UserRole;
+import trenvus.Exchange.wallet.WalletService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class FeeTreasuryTests {
+	@Autowired
+	private ExchangeService exchangeService;
+
+	@Autowired
+	private FeeTreasury feeTreasury;
+
+	@Autowired
+	private FeeTreasuryResolver resolver;
+
+	@Autowired
+	private WalletService walletService;
+
+	@Autowired
+	private AdminUserService adminUsers;
+
+	@Autowired
+	private TransactionRepository transactions;
+
+	@Autowired
+	private UserRepository users;
+
+	@BeforeEach
+	@AfterEach
+	void resetResolver() {
+		resolver.invalidate();
+	}
+
+	@Test
+	void creditFee_isReportedAsPendingUntilSettled() {
+		createUser("fee-treasury-owner@trenvus.local", UserRole.ADMIN);
+		var treasuryId = resolver.treasuryUserId();
+		assertNotNull(treasuryId);
+		feeTreasury.settle(10_000);
+		long walletBefore = walletService.getSnapshot(treasuryId).usdCents();
+		long incomeBefore = adminUsers.getUserFeeIncome(treasuryId, 10).totalUsdCents();
+
+		var userId = createUser("fee-treasury-payer@trenvus.local", UserRole.USER);
+		exchangeService.depositUsd(userId, 2_000);
+		exchangeService.convertUsdToTrv(userId, 1_000, "k1");
+
+		assertEquals(walletBefore, walletService.getSnapshot(treasuryId).usdCents());
+		assertEquals(10, feeTreasury.pendingUsdCents(treasuryId));
+		assertEquals(walletBefore + 10, feeTreasury.withPendingFees(treasuryId, walletService.getSnapshot(treasuryId)).usdCents());
+		var payerWallet = walletService.getSnapshot(userId);
+		assertSame(payerWallet, feeTreasury.withPendingFees(userId, payerWallet));
+		var pending = adminUsers.getUserFeeIncome(treasuryId, 10);
+		assertEquals(incomeBefore + 10, pending.totalUsdCents());
+		assertEquals(10, pending.pendingUsdCents());
+		assertTrue(pending.items().get(0).pending());
+		assertEquals(userId, pending.items().get(0).sourceUserId());
+
+		assertEquals(1, feeTreasury.settle(10));
+
+		assertEquals(0, feeTreasury.pendingUsdCents(treasuryId));
+		assertEquals(walletBefore + 10, walletService.getSnapshot(treasuryId).usdCents());
+		var settled = adminUsers.getUserFeeIncome(treasuryId, 10);
+		assertEquals(incomeBefore + 10, settled.totalUsdCents());
+		assertEquals(0, settled.pendingUsdCents());
+		assertFalse(settled.items().get(0).pending());
+		assertEquals(TransactionType.FEE_INCOME_USD, transactions.findById(settled.items().get(0).id()).orElseThrow().getType());
+	}
+
+	@Test
+	void settle_processesAccrualsInBatches() {
+		createUser("fee-treasury-batch@trenvus.local", UserRole.ADMIN);
+		var treasuryId = resolver.treasuryUserId();
+		feeTreasury.settle(10_000);
+		long walletBefore = walletService.getSnapshot(treasuryId).usdCents();
+
+		for (int i = 0; i < 3; i++) {
+			feeTreasury.creditFee(null, 5);
+		}
+
+		assertEquals(2, feeTreasury.settle(2));
+		assertEquals(5, feeTreasury.pendingUsdCents(treasuryId));
+		assertEquals(1, feeTreasury.settle(2));
+		assertEquals(0, feeTreasury.settle(2));
+		assertEquals(walletBefore + 15, walletService.getSnapshot(treasuryId).usdCents());
+	}
+
+	private Long createUser(String email, UserRole role) {
+		var user = new UserEntity();
+		user.setEmail(email);
+		user.setPasswordHash("test");
+		user.setRole(role);
+		return users.save(user).getId();
+	}
+}
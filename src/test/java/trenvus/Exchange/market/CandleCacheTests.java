@@ -0,0 +1,70 @@
+package trenvus.Exchange.market;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import trenvus.Exchange.market.MarketDataService.CandlePoint;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CandleCacheTests {
+	private final AtomicLong clock = new AtomicLong();
+
+	@Test
+	void get_servesShorterLimitAsTailOfStoredSeries() {
+		var cache = new CandleCache(10, Duration.ofSeconds(10), clock::get);
+		cache.put("BTC-USDT", "1H", 100, series(100));
+
+		var slice = cache.get("BTC-USDT", "1H", 24);
+
+		assertEquals(24, slice.size());
+		assertEquals("76", slice.get(0).ts());
+		assertEquals("99", slice.get(23).ts());
+		assertEquals(1, cache.stats().hits());
+		assertEquals(1, cache.stats().size());
+	}
+
+	@Test
+	void get_missesWhenLongerSeriesRequestedOrEntryExpired() {
+		var cache = new CandleCache(10, Duration.ofSeconds(10), clock::get);
+		cache.put("BTC-USDT", "1H", 24, series(24));
+
+		assertNull(cache.get("BTC-USDT", "1H", 50));
+
+		clock.addAndGet(Duration.ofSeconds(11).toNanos());
+		assertNull(cache.get("BTC-USDT", "1H", 24));
+
+		var stats = cache.stats();
+		assertEquals(2, stats.misses());
+		assertEquals(1, stats.evictions());
+		assertEquals(0, stats.size());
+	}
+
+	@Test
+	void put_evictsLeastRecentlyUsedEntryWhenFull() {
+		var cache = new CandleCache(2, Duration.ofMinutes(1), clock::get);
+		cache.put("BTC-USDT", "1H", 100, series(5));
+		clock.incrementAndGet();
+		cache.put("ETH-USDT", "1H", 100, series(5));
+		clock.incrementAndGet();
+		cache.get("BTC-USDT", "1H", 5);
+		clock.incrementAndGet();
+
+		cache.put("SOL-USDT", "1H", 100, series(5));
+
+		assertNotNull(cache.lookup("BTC-USDT", "1H", 5));
+		assertNull(cache.lookup("ETH-USDT", "1H", 5));
+		assertEquals(1, cache.stats().evictions());
+		assertEquals(2, cache.stats().size());
+	}
+
+	private static List<CandlePoint> series(int n) {
+		var out = new ArrayList<CandlePoint>();
+		for (int i = 0; i < n; i++) {
+			out.add(new CandlePoint(String.valueOf(i), i));
+		}
+		return out;
+	}
+}
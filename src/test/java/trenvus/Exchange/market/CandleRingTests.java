@@ -0,0 +1,61 @@
+package trenvus.Exchange.market;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CandleRingTests {
+	@Test
+	void append_keepsNewestPointsAndReplacesSameTimestamp() {
+		var ring = new CandleRing(3);
+		assertTrue(ring.tail(10).isEmpty());
+
+		ring.append(1, 10);
+		ring.append(2, 20);
+		ring.append(2, 21);
+		assertEquals(2, ring.tail(10).size());
+		assertEquals(21.0, ring.tail(10).get(1).close());
+
+		ring.append(3, 30);
+		ring.append(4, 40);
+		ring.append(5, 50);
+		var tail = ring.tail(10);
+		assertEquals(3, tail.size());
+		assertEquals("3", tail.get(0).ts());
+		assertEquals("5", tail.get(2).ts());
+		assertEquals(2, ring.tail(2).size());
+		assertEquals("4", ring.tail(2).get(0).ts());
+	}
+
+	@Test
+	void tail_neverObservesTornOrUnorderedSnapshots() throws Exception {
+		var ring = new CandleRing(64);
+		var done = new AtomicBoolean();
+		var failure = new AtomicReference<String>();
+
+		var reader = new Thread(() -> {
+			while (!done.get() && failure.get() == null) {
+				var points = ring.tail(64);
+				long previous = -1;
+				for (var p : points) {
+					long ts = Long.parseLong(p.ts());
+					if (p.close() != ts || ts <= previous) {
+						failure.set("inconsistent point " + p + " after " + previous);
+					}
+					previous = ts;
+				}
+			}
+		});
+		reader.start();
+		for (long i = 1; i <= 200_000; i++) {
+			ring.append(i, i);
+		}
+		done.set(true);
+		reader.join();
+
+		assertNull(failure.get());
+		assertEquals("200000", ring.tail(1).get(0).ts());
+	}
+}
@@ -0,0 +1,119 @@
+package trenvus.Exchange.market;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import trenvus.Exchange.market.MarketDataService.CandlePoint;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CandleStoreTests {
+	private static final long T0 = 1_700_000_000_000L - (1_700_000_000_000L % 86_400_000L);
+
+	@Test
+	void recordTick_aggregatesOhlcvForEveryResolution() {
+		var store = new CandleStore(null, false, 1000, 15000, 900);
+		store.recordTick("BTC-USDT", T0 + 5_000, 100, 1);
+		store.recordTick("BTC-USDT", T0 + 20_000, 105, 2);
+		store.recordTick("BTC-USDT", T0 + 50_000, 98, 0);
+		store.recordTick("BTC-USDT", T0 + 61_000, 101, 1);
+
+		var minutes = store.latest("BTC-USDT", "1m", 10);
+		assertEquals(2, minutes.size());
+		var first = minutes.get(0);
+		assertEquals(String.valueOf(T0), first.ts());
+		assertEquals(100.0, first.open());
+		assertEquals(105.0, first.high());
+		assertEquals(98.0, first.low());
+		assertEquals(98.0, first.close());
+		assertEquals(3.0, first.volume());
+
+		var fiveMinutes = store.latest("BTC-USDT", "5m", 10);
+		assertEquals(1, fiveMinutes.size());
+		assertEquals(100.0, fiveMinutes.get(0).open());
+		assertEquals(101.0, fiveMinutes.get(0).close());
+		assertEquals(4.0, fiveMinutes.get(0).volume());
+
+		// Daily bars open at 00:00 UTC+8, i.e. 16:00 UTC of the previous day.
+		var daily = store.latest("BTC-USDT", "1D", 10);
+		assertEquals(1, daily.size());
+		assertEquals(0, (Long.parseLong(daily.get(0).ts()) + 8 * 3_600_000L) % 86_400_000L);
+	}
+
+	@Test
+	void merge_replacesBarsAndMarksSeriesSynced() {
+		var store = new CandleStore(null, false, 1000, 15000, 900);
+		assertTrue(store.needsSync("ETH-USDT", "1H", T0));
+
+		store.recordTick("ETH-USDT", T0 + 10, 50, 0);
+		store.merge("ETH-USDT", "1H", List.of(
+				new CandlePoint(String.valueOf(T0 - 3_600_000L), 40, 45, 39, 44, 10),
+				new CandlePoint(String.valueOf(T0), 44, 52, 43, 51, 7)
+		), T0);
+
+		assertFalse(store.needsSync("ETH-USDT", "1H", T0 + 60_000));
+		assertTrue(store.needsSync("ETH-USDT", "1H", T0 + 900_000));
+
+		var bars = store.latest("ETH-USDT", "1H", 10);
+		assertEquals(2, bars.size());
+		assertEquals(44.0, bars.get(1).open());
+		assertEquals(7.0, bars.get(1).volume());
+
+		store.recordTick("ETH-USDT", T0 + 20, 53, 0);
+		var current = store.latest("ETH-USDT", "1H", 1).get(0);
+		assertEquals(53.0, current.high());
+		assertEquals(53.0, current.close());
+	}
+
+	@Test
+	void range_returnsBarsWithinBoundsOldestFirst() {
+		var store = new CandleStore(null, false, 1000, 15000, 900);
+		for (int i = 0; i < 30; i++) {
+			store.recordTick("SOL-USDT", T0 + i * 60_000L, 10 + i, 0);
+		}
+
+		var window = store.range("SOL-USDT", "1m", T0 + 5 * 60_000L, T0 + 9 * 60_000L, 100);
+		assertEquals(5, window.size());
+		assertEquals(15.0, window.get(0).close());
+		assertEquals(19.0, window.get(4).close());
+
+		assertEquals(2, store.range("SOL-USDT", "1m", T0, T0 + 29 * 60_000L, 2).size());
+		assertTrue(store.range("SOL-USDT", "1m", T0 + 31 * 60_000L, T0 + 40 * 60_000L, 10).isEmpty());
+	}
+
+	@Test
+	void range_readsOlderBarsFromTableAndOverlaysUnflushedBarsWithoutFlushing() {
+		var repository = mock(MarketCandleRepository.class);
+		long from = T0 - 2 * 60_000L;
+		long to = T0 + 60_000L;
+		when(repository.findByInstIdAndBarAndOpenTimeBetweenOrderByOpenTimeAsc("SOL-USDT", "1m", from, to, PageRequest.of(0, 100)))
+				.thenReturn(List.of(row(T0 - 2 * 60_000L, 8), row(T0 - 60_000L, 9), row(T0, 1)));
+		// Flushes are scheduled far away, so every bar recorded here is still only in memory
+		var store = new CandleStore(repository, true, 1000, 3_600_000, 900);
+		store.recordTick("SOL-USDT", T0, 10, 0);
+		store.recordTick("SOL-USDT", T0 + 60_000L, 11, 0);
+
+		var window = store.range("SOL-USDT", "1m", from, to, 100);
+
+		assertEquals(4, window.size());
+		assertEquals(8.0, window.get(0).close());
+		assertEquals(9.0, window.get(1).close());
+		assertEquals(10.0, window.get(2).close());
+		assertEquals(11.0, window.get(3).close());
+		assertEquals(2, store.range("SOL-USDT", "1m", from, to, 2).size());
+		verify(repository, never()).upsertAll(any());
+	}
+
+	private static MarketCandleEntity row(long openTime, double close) {
+		var row = new MarketCandleEntity();
+		row.setInstId("SOL-USDT");
+		row.setBar("1m");
+		row.setOpenTime(openTime);
+		row.setOpen(close);
+		row.setHigh(close);
+		row.setLow(close);
+		row.setClose(close);
+		return row;
+	}
+}
@@ -0,0 +1,60 @@
+package trenvus.Exchange.market;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTests {
+	@Test
+	void tryAcquire_rejectsAfterConsecutiveFailuresUntilBackoffElapses() {
+		var clock = new AtomicLong();
+		var breaker = new CircuitBreaker("coinext", 3, Duration.ofSeconds(1), Duration.ofSeconds(8), clock::get);
+
+		for (int i = 0; i < 2; i++) {
+			assertTrue(breaker.tryAcquire());
+			breaker.onFailure();
+		}
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+		assertTrue(breaker.tryAcquire());
+		breaker.onFailure();
+		assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+		assertFalse(breaker.tryAcquire());
+
+		clock.addAndGet(Duration.ofMillis(999).toNanos());
+		assertFalse(breaker.tryAcquire());
+		clock.addAndGet(Duration.ofMillis(1).toNanos());
+		assertTrue(breaker.tryAcquire());
+		assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+		assertFalse(breaker.tryAcquire(), "only one probe while half-open");
+	}
+
+	@Test
+	void onFailure_doublesOpenPeriodUpToCapAndSuccessCloses() {
+		var clock = new AtomicLong();
+		var breaker = new CircuitBreaker("coinext", 1, Duration.ofSeconds(1), Duration.ofSeconds(3), clock::get);
+
+		breaker.onFailure();
+		assertEquals(Duration.ofSeconds(1), breaker.remainingOpen());
+
+		clock.addAndGet(Duration.ofSeconds(1).toNanos());
+		assertTrue(breaker.tryAcquire());
+		breaker.onFailure();
+		assertEquals(Duration.ofSeconds(2), breaker.remainingOpen());
+
+		clock.addAndGet(Duration.ofSeconds(2).toNanos());
+		assertTrue(breaker.tryAcquire());
+		breaker.onFailure();
+		assertEquals(Duration.ofSeconds(3), breaker.remainingOpen());
+
+		clock.addAndGet(Duration.ofSeconds(3).toNanos());
+		assertTrue(breaker.tryAcquire());
+		breaker.onSuccess();
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+		assertEquals(Duration.ZERO, breaker.remainingOpen());
+
+		breaker.onFailure();
+		assertEquals(Duration.ofSeconds(1), breaker.remainingOpen(), "backoff resets after a success");
+	}
+}
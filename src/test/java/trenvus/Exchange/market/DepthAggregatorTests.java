@@ -0,0 +1,64 @@
+package trenvus.Exchange.market;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import trenvus.Exchange.market.MarketDataService.Level;
+import trenvus.Exchange.market.MarketDataService.OrderBook;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DepthAggregatorTests {
+	private static final OrderBook BOOK = new OrderBook(
+			"BTC-USDT",
+			"BTC",
+			"USDT",
+			List.of(new Level(100.1, 1.0), new Level(100.3, 2.0), new Level(101.0, 1.5), new Level(101.2, 0.5)),
+			List.of(new Level(99.9, 3.0), new Level(99.5, 1.0), new Level(99.0, 2.0), new Level(98.4, 4.0)),
+			"1704412800000"
+	);
+
+	@Test
+	void aggregate_groupsLevelsIntoTicksWithCumulativeDepth() {
+		var depth = DepthAggregator.aggregate(BOOK, 1.0, 10);
+
+		assertEquals(1.0, depth.tick());
+		assertEquals(100.0, depth.mid(), 1e-9);
+		assertEquals(0.2, depth.spread(), 1e-9);
+		assertEquals(20.0, depth.spreadBps(), 1e-6);
+
+		// Asks round up: 100.1 and 100.3 land in 101, 101.0 stays, 101.2 goes to 102.
+		assertEquals(2, depth.asks().size());
+		assertEquals(101.0, depth.asks().get(0).price());
+		assertEquals(4.5, depth.asks().get(0).size(), 1e-9);
+		assertEquals(102.0, depth.asks().get(1).price());
+		assertEquals(5.0, depth.asks().get(1).cumulativeSize(), 1e-9);
+
+		// Bids round down: 99.9 and 99.5 land in 99 together with 99.0, 98.4 goes to 98.
+		assertEquals(2, depth.bids().size());
+		assertEquals(99.0, depth.bids().get(0).price());
+		assertEquals(6.0, depth.bids().get(0).size(), 1e-9);
+		assertEquals(3 * 99.9 + 99.5 + 2 * 99.0, depth.bids().get(0).cumulativeNotional(), 1e-9);
+		assertEquals(10.0, depth.bids().get(1).cumulativeSize(), 1e-9);
+
+		assertEquals((10.0 - 5.0) / 15.0, depth.imbalance(), 1e-9);
+	}
+
+	@Test
+	void aggregate_keepsRawLevelsWithoutTickAndHonoursDepth() {
+		var depth = DepthAggregator.aggregate(BOOK, 0, 2);
+
+		assertEquals(0.0, depth.tick());
+		assertEquals(List.of(100.1, 100.3), depth.asks().stream().map(MarketDataService.DepthLevel::price).toList());
+		assertEquals(3.0, depth.asks().get(1).cumulativeSize(), 1e-9);
+		assertEquals(2, depth.bids().size());
+
+		var fine = DepthAggregator.aggregate(BOOK, 0.1, 50);
+		assertEquals(100.1, fine.asks().get(0).price());
+		assertEquals(98.4, fine.bids().get(3).price());
+
+		var empty = DepthAggregator.aggregate(new OrderBook("X-Y", "X", "Y", List.of(), List.of(), null), 1.0, 10);
+		assertNull(empty.mid());
+		assertNull(empty.imbalance());
+		assertTrue(empty.asks().isEmpty());
+	}
+}
@@ -0,0 +1,67 @@
+package trenvus.Exchange.market;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import trenvus.Exchange.market.MarketDataService.OrderBookDepth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DepthCacheTests {
+	private final AtomicLong clock = new AtomicLong();
+
+	@Test
+	void getFresh_servesEntryOnlyWithinTtl() {
+		var cache = new DepthCache(10, Duration.ofSeconds(1), clock::get);
+		var key = DepthCache.key("BTC-USDT", 1.0, 10);
+		var stored = depth("1");
+		cache.put(key, "1", stored);
+
+		assertSame(stored, cache.getFresh(key));
+
+		clock.addAndGet(Duration.ofSeconds(1).toNanos());
+		assertNull(cache.getFresh(key));
+		assertEquals(1, cache.stats().hits());
+	}
+
+	@Test
+	void getSameVersion_reusesEntryForUnchangedBookAndRestartsTtl() {
+		var cache = new DepthCache(10, Duration.ofSeconds(1), clock::get);
+		var key = DepthCache.key("BTC-USDT", 1.0, 10);
+		var stored = depth("1");
+		cache.put(key, "1", stored);
+		clock.addAndGet(Duration.ofSeconds(2).toNanos());
+
+		assertSame(stored, cache.getSameVersion(key, "1"));
+		assertSame(stored, cache.getFresh(key));
+		assertNull(cache.getSameVersion(key, "2"));
+		assertNull(cache.getSameVersion(key, null));
+
+		var stats = cache.stats();
+		assertEquals(2, stats.hits());
+		assertEquals(2, stats.misses());
+	}
+
+	@Test
+	void put_evictsLeastRecentlyUsedEntryWhenFull() {
+		var cache = new DepthCache(2, Duration.ofMinutes(1), clock::get);
+		cache.put(DepthCache.key("BTC-USDT", 1.0, 10), "1", depth("1"));
+		clock.incrementAndGet();
+		cache.put(DepthCache.key("BTC-USDT", 5.0, 10), "1", depth("1"));
+		clock.incrementAndGet();
+		cache.getFresh(DepthCache.key("BTC-USDT", 1.0, 10));
+		clock.incrementAndGet();
+
+		cache.put(DepthCache.key("BTC-USDT", 10.0, 10), "1", depth("1"));
+
+		assertNotNull(cache.getFresh(DepthCache.key("BTC-USDT", 1.0, 10)));
+		assertNull(cache.getFresh(DepthCache.key("BTC-USDT", 5.0, 10)));
+		assertEquals(1, cache.stats().evictions());
+		assertEquals(2, cache.stats().size());
+	}
+
+	private static OrderBookDepth depth(String ts) {
+		return new OrderBookDepth("BTC-USDT", "BTC", "USDT", 1.0, null, null, null, null, List.of(), List.of(), ts);
+	}
+}
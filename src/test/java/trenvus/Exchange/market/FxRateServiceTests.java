@@ -0,0 +1,49 @@
+package trenvus.Exchange.market;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FxRateServiceTests {
+	@Test
+	void rate_crossesThroughUsdAndFallsBackToNextSource() throws Exception {
+		var file = Files.createTempFile("fx-rates", ".json");
+		try {
+			Files.writeString(file, "{\"base\":\"USD\",\"rates\":{\"BRL\":5.0,\"EUR\":0.8}}", StandardCharsets.UTF_8);
+			var service = new FxRateService(new SimpleMeterRegistry(), "file:/nonexistent/rates.json,file:" + file + ",stub", 600, 1000, false);
+
+			assertEquals(5.0, service.rate("USD-BRL"));
+			assertEquals(6.25, service.rate("eur-brl"), 1e-12);
+			assertNull(service.rate("USD-JPY"));
+			assertNull(service.rate("USD"));
+			assertNotNull(service.updatedAt());
+		} finally {
+			Files.deleteIfExists(file);
+		}
+
+		var stubOnly = new FxRateService(new SimpleMeterRegistry(), "stub", 600, 1000, false);
+		assertEquals(0.92, stubOnly.rate("USD-EUR"));
+	}
+
+	@Test
+	void backfill_isDeterministicAndEndsAtAnchor() {
+		long first = 1_700_000_000_000L - (1_700_000_000_000L % 3_600_000L);
+		var a = FxRateHistory.backfill("USD-BRL", 3_600_000L, first, 5.0, 50);
+		var b = FxRateHistory.backfill("USD-BRL", 3_600_000L, first, 5.0, 50);
+		var other = FxRateHistory.backfill("USD-EUR", 3_600_000L, first, 5.0, 50);
+
+		assertEquals(a, b);
+		assertNotEquals(a, other);
+		assertEquals(50, a.size());
+		assertEquals(5.0, a.get(49).close());
+		assertEquals(String.valueOf(first - 3_600_000L), a.get(49).ts());
+		for (int i = 1; i < a.size(); i++) {
+			assertEquals(a.get(i - 1).close(), a.get(i).open());
+			assertTrue(a.get(i).high() >= Math.max(a.get(i).open(), a.get(i).close()));
+			assertTrue(a.get(i).low() <= Math.min(a.get(i).open(), a.get(i).close()));
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package trenvus.Exchange.market;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonPayloadTests {
+	@Test
+	void of_tagsByContentAndCompressesLargeBodies() throws IOException {
+		var small = JsonPayload.of("[]".getBytes(StandardCharsets.UTF_8));
+		assertNull(small.gzip());
+		assertEquals(small.etag(), JsonPayload.of("[]".getBytes(StandardCharsets.UTF_8)).etag());
+
+		var json = ("[" + "{\"instId\":\"BTC-USDT\",\"last\":64000.5},".repeat(100) + "{}]").getBytes(StandardCharsets.UTF_8);
+		var large = JsonPayload.of(json);
+		assertNotNull(large.gzip());
+		assertTrue(large.gzip().length < json.length);
+		try (var in = new GZIPInputStream(new ByteArrayInputStream(large.gzip()))) {
+			assertArrayEquals(json, in.readAllBytes());
+		}
+		assertNotEquals(small.etag(), large.etag());
+		assertNotEquals(large.etag(), large.gzipEtag());
+		assertTrue(large.etag().startsWith("\"") && large.etag().endsWith("\""));
+	}
+
+	@Test
+	void matches_acceptsEitherEncodingAndWeakTags() {
+		var payload = JsonPayload.of("[{\"instId\":\"BTC-USDT\"}]".getBytes(StandardCharsets.UTF_8));
+		assertTrue(payload.matches(payload.etag()));
+		assertTrue(payload.matches(payload.gzipEtag()));
+		assertTrue(payload.matches("\"other\", W/" + payload.etag()));
+		assertTrue(payload.matches("*"));
+		assertFalse(payload.matches("\"other\""));
+		assertFalse(payload.matches(null));
+	}
+
+	@Test
+	void acceptsGzip_honoursQualityZero() {
+		assertTrue(JsonPayload.acceptsGzip("gzip, deflate, br"));
+		assertTrue(JsonPayload.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+		assertTrue(JsonPayload.acceptsGzip("*"));
+		assertFalse(JsonPayload.acceptsGzip("gzip;q=0"));
+		assertFalse(JsonPayload.acceptsGzip("identity"));
+		assertFalse(JsonPayload.acceptsGzip(null));
+	}
+}
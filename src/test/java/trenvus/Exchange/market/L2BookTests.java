@@ -0,0 +1,97 @@
+package trenvus.Exchange.market;
+
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class L2BookTests {
+	@Test
+	void set_keepsSidesSortedAndRemovesZeroSizeLevels() {
+		var book = new L2Book("BTC-USDT");
+		book.set(true, 100.0, 1.0);
+		book.set(true, 101.0, 2.0);
+		book.set(true, 99.5, 3.0);
+		book.set(false, 102.0, 1.0);
+		book.set(false, 101.5, 4.0);
+		book.commit("1", 1);
+
+		var top = book.top(10);
+		assertEquals(101.0, top.bids().get(0).price());
+		assertEquals(99.5, top.bids().get(2).price());
+		assertEquals(101.5, top.asks().get(0).price());
+		assertEquals("BTC", top.baseCurrency());
+
+		book.set(true, 101.0, 0.0);
+		book.set(false, 101.5, 5.0);
+		book.set(false, 500.0, 0.0);
+		book.commit("2", 2);
+
+		top = book.top(1);
+		assertEquals(1, top.bids().size());
+		assertEquals(100.0, top.bids().get(0).price());
+		assertEquals(5.0, top.asks().get(0).size());
+		assertEquals(2, book.depth(true));
+		assertEquals(2, book.depth(false));
+	}
+
+	@Test
+	void top_reusesViewUntilNextCommit() {
+		var book = new L2Book("BTC-USDT");
+		for (int i = 0; i < 200; i++) {
+			book.set(false, 1000.0 + i, 1.0);
+		}
+		book.commit("1", 1);
+
+		var first = book.top(50);
+		assertSame(first, book.top(50));
+		assertEquals(50, first.asks().size());
+
+		book.set(false, 999.0, 1.0);
+		book.commit("2", 2);
+		assertNotSame(first, book.top(50));
+		assertEquals(999.0, book.top(5).asks().get(0).price());
+	}
+
+	@Test
+	void checksumMatches_usesExactUpstreamText() {
+		var book = new L2Book("BTC-USDT");
+		book.set(true, decimal("3366.1"), decimal("7"));
+		book.set(true, decimal("3366"), decimal("6"));
+		book.set(false, decimal("3366.8"), decimal("9"));
+		book.set(false, decimal("3368"), decimal("8"));
+		book.set(false, decimal("3372"), decimal("0.0070"));
+		book.commit("1", 1);
+
+		assertTrue(book.checksumMatches(crc("3366.1:7:3366.8:9:3366:6:3368:8:3372:0.0070")));
+		assertFalse(book.checksumMatches(crc("3366.1:7:3366.8:9:3366:6:3368:8:3372:0.007")));
+
+		book.set(true, 3365.0, 1.0);
+		assertFalse(book.checksumMatches(crc("3366.1:7:3366.8:9:3366:6:3368:8:3372:0.0070")));
+	}
+
+	@Test
+	void parseDecimal_roundTripsPlainDecimalsAndRejectsOthers() {
+		for (var text : new String[] {"0", "0.0", "64000.5", "0.00001234", "123456789.123456"}) {
+			long value = decimal(text);
+			assertEquals(text, L2Book.formatDecimal(value));
+			assertEquals(Double.parseDouble(text), L2Book.toDouble(value));
+		}
+		assertEquals(L2Book.NO_TEXT, decimal("1e-5"));
+		assertEquals(L2Book.NO_TEXT, decimal("-1"));
+		assertEquals(L2Book.NO_TEXT, decimal("1.2.3"));
+		assertEquals(L2Book.NO_TEXT, decimal(""));
+	}
+
+	private static long decimal(String text) {
+		var chars = text.toCharArray();
+		return L2Book.parseDecimal(chars, 0, chars.length);
+	}
+
+	static int crc(String text) {
+		var crc = new CRC32();
+		crc.update(text.getBytes(StandardCharsets.US_ASCII));
+		return (int) crc.getValue();
+	}
+}
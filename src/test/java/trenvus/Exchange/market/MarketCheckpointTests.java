@@ -0,0 +1,97 @@
+package trenvus.Exchange.market;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import trenvus.Exchange.market.MarketDataService.CandlePoint;
+import trenvus.Exchange.market.MarketDataService.Checkpoint;
+import trenvus.Exchange.market.MarketDataService.CheckpointTicker;
+import trenvus.Exchange.market.MarketDataService.MarketTicker;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MarketCheckpointTests {
+	private static final MarketTicker BTC = new MarketTicker("BTC-USDT", "BTC", "USDT", 64000.5, 64000.0, 64001.0, 1.5, 65000.0, 63000.0, 10.0, 640000.0, "1700000000000");
+
+	@Test
+	void encodeCheckpoint_roundTripsCompressedSnapshot() throws Exception {
+		var mapper = new ObjectMapper();
+		var btc = new MarketTicker("BTC-USDT", "BTC", "USDT", 64000.5, 64000.0, 64001.0, 1.5, 65000.0, 63000.0, 10.0, 640000.0, "1700000000000");
+		var usdtBrl = new MarketTicker("USDT-BRL", "USDT", "BRL", 5.01, 5.0, 5.02, null, null, null, null, null, "1700000000000");
+		var checkpoint = new Checkpoint(
+				List.of(btc),
+				1_700_000_000_000L,
+				List.of(),
+				0,
+				Map.of("USDT-BRL", new CheckpointTicker(usdtBrl, 1_700_000_000_500L)),
+				Map.of("USDT-BRL", List.of(new CandlePoint("1700000000000", 5.0), new CandlePoint("1700000060000", 5.01)))
+		);
+
+		var bytes = MarketDataService.encodeCheckpoint(mapper, checkpoint);
+		assertEquals(0x1f, bytes[0] & 0xff);
+		assertEquals(0x8b, bytes[1] & 0xff);
+
+		var restored = MarketDataService.decodeCheckpoint(mapper, bytes);
+		assertEquals(checkpoint, restored);
+		assertNull(restored.coinext().get("USDT-BRL").ticker().change24hPercent());
+	}
+
+	@Test
+	void restoreCheckpoint_servesRecentCheckpointFlaggedStale() throws Exception {
+		var service = startWithCheckpoint(Instant.now().minus(Duration.ofMinutes(10)));
+
+		var response = new MarketController(service, null).getCryptoTickers(null, null);
+
+		assertEquals("true", response.getHeaders().getFirst(MarketController.STALE_HEADER));
+		assertTrue(new String(response.getBody(), StandardCharsets.UTF_8).contains("\"BTC-USDT\""));
+	}
+
+	@Test
+	void restoreCheckpoint_ignoresCheckpointOlderThanMaxAge() throws Exception {
+		var service = startWithCheckpoint(Instant.now().minus(Duration.ofDays(2)));
+
+		var response = new MarketController(service, null).getCryptoTickers(null, null);
+
+		assertEquals("false", response.getHeaders().getFirst(MarketController.STALE_HEADER));
+		assertEquals("[]", new String(response.getBody(), StandardCharsets.UTF_8));
+	}
+
+	/** A service whose checkpoint row was saved at {@code savedAt}, started without any upstream refresh. */
+	private static MarketDataService startWithCheckpoint(Instant savedAt) throws Exception {
+		var mapper = new ObjectMapper();
+		var checkpoint = new Checkpoint(List.of(BTC), savedAt.toEpochMilli(), List.of(), 0, Map.of(), Map.of());
+		var row = new MarketSnapshotEntity();
+		row.setName(MarketDataService.CHECKPOINT_NAME);
+		row.setPayload(MarketDataService.encodeCheckpoint(mapper, checkpoint));
+		row.setUpdatedAt(savedAt);
+		var snapshots = mock(MarketSnapshotRepository.class);
+		when(snapshots.findById(MarketDataService.CHECKPOINT_NAME)).thenReturn(Optional.of(row));
+
+		var service = new MarketDataService(
+				new CandleStore(null, false, 1000, 15000, 900),
+				new FxRateService(new SimpleMeterRegistry(), "stub", 600, 1000, false),
+				snapshots,
+				null,
+				new SimpleMeterRegistry(),
+				mapper,
+				"BTC-USDT", "", "USD-EUR",
+				10, 5000, true,
+				true, 0, 1000, 300,
+				256, 1000, 512,
+				false, "wss://ws.okx.com:8443/ws/v5/public", 5000, 500,
+				3, 1000, 60000,
+				true, 60, 86400,
+				false, 1414679126, 5000
+		);
+		// What the container does on startup; the refresher is never started, so nothing is fetched.
+		service.restoreCheckpoint();
+		return service;
+	}
+}
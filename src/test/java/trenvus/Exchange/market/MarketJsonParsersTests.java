@@ -0,0 +1,143 @@
+package trenvus.Exchange.market;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarketJsonParsersTests {
+	@Test
+	void parseOkxTickers_keepsOnlyConfiguredUniverse() throws Exception {
+		String body = """
+				{"code":"0","msg":"","data":[
+				  {"instType":"SPOT","instId":"LTC-USDT","last":"70.1","extra":{"nested":[1,2]}},
+				  {"instType":"SPOT","instId":"BTC-USDT","last":"43000","open24h":"40000","bidPx":"42999.9","askPx":"43000.1","ts":"1700000000000"}
+				]}
+				""";
+
+		var tickers = MarketJsonParsers.parseOkxTickers(stream(body), Set.of("BTC-USDT"));
+
+		assertEquals(Set.of("BTC-USDT"), tickers.keySet());
+		var btc = tickers.get("BTC-USDT");
+		assertEquals("BTC", btc.baseCurrency());
+		assertEquals("USDT", btc.quoteCurrency());
+		assertEquals(43000.0, btc.last());
+		assertEquals(42999.9, btc.bid());
+		assertEquals(7.5, btc.change24hPercent(), 1e-9);
+		assertEquals("1700000000000", btc.ts());
+	}
+
+	@Test
+	void parseOkxTickers_returnsEmptyForErrorPayload() throws Exception {
+		var tickers = MarketJsonParsers.parseOkxTickers(stream("{\"code\":\"51001\",\"msg\":\"Instrument ID does not exist\"}"), Set.of("BTC-USDT"));
+		assertTrue(tickers.isEmpty());
+	}
+
+	@Test
+	void parseFxRates_rebasesToUsd() throws Exception {
+		var frankfurter = MarketJsonParsers.parseFxRates(stream("{\"amount\":1.0,\"base\":\"USD\",\"date\":\"2024-01-02\",\"rates\":{\"BRL\":5.0,\"EUR\":0.9}}"));
+		assertEquals(1.0, frankfurter.get("USD"));
+		assertEquals(5.0, frankfurter.get("BRL"));
+
+		var eurBased = MarketJsonParsers.parseFxRates(stream("{\"result\":\"success\",\"base_code\":\"EUR\",\"rates\":{\"EUR\":1,\"USD\":1.25,\"BRL\":6.25}}"));
+		assertEquals(1.0, eurBased.get("USD"));
+		assertEquals(0.8, eurBased.get("EUR"), 1e-12);
+		assertEquals(5.0, eurBased.get("BRL"), 1e-12);
+
+		assertTrue(MarketJsonParsers.parseFxRates(stream("{\"base\":\"EUR\",\"rates\":{\"BRL\":6.25}}")).isEmpty());
+	}
+
+	@Test
+	void parseOkxPush_appliesBookSnapshotAndUpdatesAndDetectsGaps() throws Exception {
+		var book = new L2Book("BTC-USDT");
+		String snapshot = """
+				{"arg":{"channel":"books","instId":"BTC-USDT"},"action":"snapshot","data":[{
+				"asks":[["3366.8","9","0","3"],["3368","8","0","4"]],"bids":[["3366.1","7","0","3"],["3366","6","0","4"]],
+				"ts":"1","checksum":%d,"prevSeqId":-1,"seqId":10}]}
+				""".formatted(L2BookTests.crc("3366.1:7:3366.8:9:3366:6:3368:8"));
+
+		var push = MarketJsonParsers.parseOkxPush(snapshot, Set.of("BTC-USDT"), id -> book);
+		assertEquals(MarketJsonParsers.BookSync.APPLIED, push.book());
+		assertEquals(10, book.seqId());
+		assertEquals(3366.1, book.top(1).bids().get(0).price());
+
+		String update = """
+				{"arg":{"channel":"books","instId":"BTC-USDT"},"action":"update","data":[{
+				"asks":[["3366.8","0","0","0"]],"bids":[["3366.5","1.5","0","1"]],
+				"ts":"2","checksum":%d,"prevSeqId":10,"seqId":11}]}
+				""".formatted(L2BookTests.crc("3366.5:1.5:3368:8:3366.1:7:3366:6"));
+		push = MarketJsonParsers.parseOkxPush(update, Set.of("BTC-USDT"), id -> book);
+		assertEquals(MarketJsonParsers.BookSync.APPLIED, push.book());
+		assertEquals(3368.0, book.top(1).asks().get(0).price());
+
+		String gap = update.replace("\"prevSeqId\":10", "\"prevSeqId\":12");
+		push = MarketJsonParsers.parseOkxPush(gap, Set.of("BTC-USDT"), id -> book);
+		assertEquals(MarketJsonParsers.BookSync.OUT_OF_SYNC, push.book());
+
+		String badChecksum = snapshot.replaceFirst("\"checksum\":-?\\d+", "\"checksum\":1");
+		push = MarketJsonParsers.parseOkxPush(badChecksum, Set.of("BTC-USDT"), id -> book);
+		assertEquals(MarketJsonParsers.BookSync.OUT_OF_SYNC, push.book());
+	}
+
+	@Test
+	void parseOkxBook_readsFirstBook() throws Exception {
+		String body = """
+				{"code":"0","msg":"","data":[{"asks":[["43000.1","0.5","0","2"],["43001","1.25","0","1"]],
+				"bids":[["42999.9","2","0","4"]],"ts":"1700000000000"}]}
+				""";
+
+		var book = MarketJsonParsers.parseOkxBook(stream(body), "BTC-USDT");
+
+		assertEquals("BTC", book.baseCurrency());
+		assertEquals(2, book.asks().size());
+		assertEquals(43001.0, book.asks().get(1).price());
+		assertEquals(1.25, book.asks().get(1).size());
+		assertEquals(42999.9, book.bids().get(0).price());
+		assertEquals("1700000000000", book.ts());
+		assertTrue(MarketJsonParsers.parseOkxBook(stream("{\"code\":\"51001\",\"data\":[]}"), "BTC-USDT").asks().isEmpty());
+	}
+
+	@Test
+	void parseOkxCandles_returnsOhlcvOldestFirst() throws Exception {
+		String body = """
+				{"code":"0","msg":"","data":[
+				  ["1700003600000","101","103","100.5","102","12.5","1275","1275","0"],
+				  ["1700000000000","100","102","99","101","8","808","808","1"],
+				  ["bad"]
+				]}
+				""";
+
+		var candles = MarketJsonParsers.parseOkxCandles(stream(body));
+
+		assertEquals(2, candles.size());
+		assertEquals("1700000000000", candles.get(0).ts());
+		assertEquals(99.0, candles.get(0).low());
+		assertEquals(102.0, candles.get(1).close());
+		assertEquals(12.5, candles.get(1).volume());
+	}
+
+	@Test
+	void parseCoinextL2_streamsPositionalRows() throws Exception {
+		String body = """
+				[[1,0,1700000000000,0,5.41,1,5.40,1,100.5,0],
+				 [2,0,1700000000001,0,5.41,1,5.43,1,20,1],
+				 [3,0,1700000000002]]
+				""";
+		var rows = new ArrayList<String>();
+
+		int count = MarketJsonParsers.parseCoinextL2(stream(body),
+				(actionTime, last, price, quantity, side) -> rows.add(actionTime + ":" + last + ":" + price + ":" + quantity + ":" + side));
+
+		assertEquals(2, count);
+		assertEquals("1700000000000:5.41:5.4:100.5:0", rows.get(0));
+		assertEquals("1700000000001:5.41:5.43:20.0:1", rows.get(1));
+		assertEquals(0, MarketJsonParsers.parseCoinextL2(stream("{\"result\":false}"), (a, b, c, d, e) -> fail("no rows expected")));
+	}
+
+	private static ByteArrayInputStream stream(String body) {
+		return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,38 @@
+package trenvus.Exchange.market;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.net.http.HttpTimeoutException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MarketMetricsTests {
+	@Test
+	void cause_classifiesWrappedFailures() {
+		assertEquals("timeout", MarketMetrics.cause(new CompletionException(new TimeoutException())));
+		assertEquals("timeout", MarketMetrics.cause(new IllegalStateException("I/O error", new HttpTimeoutException("request timed out"))));
+		assertEquals("connect", MarketMetrics.cause(new UncheckedIOException(new ConnectException("refused"))));
+		assertEquals("parse", MarketMetrics.cause(new UncheckedIOException(new JsonParseException(null, "bad json"))));
+		assertEquals("http_status", MarketMetrics.cause(new MarketMetrics.UpstreamStatusException("status=503")));
+		assertEquals("io", MarketMetrics.cause(new UncheckedIOException(new IOException("reset"))));
+		assertEquals("other", MarketMetrics.cause(new IllegalArgumentException()));
+	}
+
+	@Test
+	void upstream_rethrowsFailuresUnchanged() {
+		var metrics = new MarketMetrics(new SimpleMeterRegistry());
+		assertEquals("ok", metrics.upstream("okx", "ticker", () -> "ok"));
+
+		var failure = new MarketMetrics.UpstreamStatusException("status=500");
+		var thrown = assertThrows(MarketMetrics.UpstreamStatusException.class, () -> metrics.upstream("okx", "ticker", () -> {
+			throw failure;
+		}));
+		assertSame(failure, thrown);
+	}
+}
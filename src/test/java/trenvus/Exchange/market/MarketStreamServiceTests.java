@@ -0,0 +1,172 @@
+package trenvus.Exchange.market;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import trenvus.Exchange.market.MarketDataService.MarketTicker;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MarketStreamServiceTests {
+	private final MarketDataService market = mock(MarketDataService.class);
+	private MarketStreamService service;
+
+	@AfterEach
+	void stop() {
+		if (service != null) {
+			service.shutdown();
+		}
+	}
+
+	@Test
+	void subscribe_countsReservationsBeforeRegistrationCompletes() {
+		service = newService(2, 8, 1);
+		service.subscribe();
+		service.subscribe();
+
+		assertEquals(2, service.subscriberCount());
+		assertThrows(ResponseStatusException.class, service::subscribe);
+		assertEquals(2, service.subscriberCount());
+	}
+
+	@Test
+	void tick_broadcastsOnlyChangedTickers() throws Exception {
+		when(market.getAllTickers()).thenReturn(
+				List.of(ticker("BTC-USDT", 64000), ticker("ETH-USDT", 3000)),
+				List.of(ticker("BTC-USDT", 64000), ticker("ETH-USDT", 3001)),
+				List.of(ticker("BTC-USDT", 64000), ticker("ETH-USDT", 3001))
+		);
+		service = newService(10, 8, 1);
+		var emitter = new RecordingEmitter(null);
+		service.subscribe(emitter);
+		await(() -> service.registeredCount() == 1);
+
+		service.tick();
+		service.tick();
+		service.tick();
+
+		await(() -> emitter.events.size() == 2);
+		assertTrue(emitter.events.get(0).contains("BTC-USDT"));
+		assertTrue(emitter.events.get(0).contains("ETH-USDT"));
+		assertFalse(emitter.events.get(1).contains("BTC-USDT"));
+		assertTrue(emitter.events.get(1).contains("3001"));
+		Thread.sleep(100);
+		assertEquals(2, emitter.events.size());
+	}
+
+	@Test
+	void tick_handsWritesToWritersSoSlowSubscriberDoesNotDelayOthers() throws Exception {
+		when(market.getAllTickers()).thenReturn(List.of(ticker("BTC-USDT", 64000)));
+		service = newService(10, 8, 2);
+		var release = new CountDownLatch(1);
+		var slow = new RecordingEmitter(release);
+		var fast = new RecordingEmitter(null);
+		service.subscribe(slow);
+		service.subscribe(fast);
+		await(() -> service.registeredCount() == 2);
+
+		try {
+			assertTimeoutPreemptively(Duration.ofSeconds(2), service::tick);
+			await(() -> fast.events.size() == 1);
+			await(() -> slow.sending.getCount() == 0);
+			assertTrue(slow.events.isEmpty());
+		} finally {
+			release.countDown();
+		}
+		await(() -> slow.events.size() == 1);
+	}
+
+	@Test
+	void tick_completesSubscriberWhoseQueueIsFull() throws Exception {
+		when(market.getAllTickers()).thenReturn(
+				List.of(ticker("BTC-USDT", 1)),
+				List.of(ticker("BTC-USDT", 2)),
+				List.of(ticker("BTC-USDT", 3))
+		);
+		service = newService(10, 1, 1);
+		var release = new CountDownLatch(1);
+		var slow = new RecordingEmitter(release);
+		service.subscribe(slow);
+		await(() -> service.registeredCount() == 1);
+
+		try {
+			service.tick();
+			// The writer is now stuck on the first event; the second fills the one-slot queue
+			await(() -> slow.sending.getCount() == 0);
+			service.tick();
+			assertFalse(slow.completed);
+
+			service.tick();
+
+			assertTrue(slow.completed);
+			assertEquals(0, service.registeredCount());
+			assertEquals(0, service.subscriberCount());
+		} finally {
+			release.countDown();
+		}
+	}
+
+	private MarketStreamService newService(int maxSubscribers, int maxPending, int writerThreads) {
+		// Ticks are driven by the test; the scheduled ones and heartbeats are far away
+		return new MarketStreamService(market, new ObjectMapper(), 60_000, 60_000, maxSubscribers, 3600, maxPending, writerThreads);
+	}
+
+	private static MarketTicker ticker(String instId, double last) {
+		return new MarketTicker(instId, instId.substring(0, instId.indexOf('-')), "USDT", last, null, null, null, null, null, null, null, "1700000000000");
+	}
+
+	private static void await(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+		while (!condition.getAsBoolean()) {
+			assertTrue(System.nanoTime() < deadline, "condition not met in time");
+			Thread.sleep(5);
+		}
+	}
+
+	/** Records what was written; with a latch, the first write blocks until it is released. */
+	private static final class RecordingEmitter extends SseEmitter {
+		final List<String> events = new CopyOnWriteArrayList<>();
+		final CountDownLatch sending = new CountDownLatch(1);
+		final CountDownLatch release;
+		volatile boolean completed;
+
+		RecordingEmitter(CountDownLatch release) {
+			this.release = release;
+		}
+
+		@Override
+		public void send(Set<DataWithMediaType> items) throws IOException {
+			sending.countDown();
+			if (release != null) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					throw new IOException(e);
+				}
+			}
+			var text = new StringBuilder();
+			for (var item : items) {
+				text.append(item.getData() instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : item.getData());
+			}
+			events.add(text.toString());
+		}
+
+		@Override
+		public void complete() {
+			completed = true;
+		}
+	}
+}
@@ -0,0 +1,197 @@
+package trenvus.Exchange.market;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OkxLiveFeedTests {
+	private static final String TICKER_PUSH = """
+			{"arg":{"channel":"tickers","instId":"BTC-USDT"},"data":[{"instId":"BTC-USDT","last":"64000.5","open24h":"64000.5",
+			"bidPx":"64000.4","askPx":"64000.6","high24h":"65000","low24h":"63000","vol24h":"10","volCcy24h":"640000","ts":"1700000000000"}]}""";
+	private static final String BOOK_PUSH = """
+			{"arg":{"channel":"books","instId":"BTC-USDT"},"action":"snapshot","data":[{"asks":[["64000.6","1.5","0","3"],["64001","2","0","1"]],
+			"bids":[["64000.4","0.7","0","2"]],"ts":"1700000000001","checksum":%d,"prevSeqId":-1,"seqId":1}]}"""
+			.formatted(L2BookTests.crc("64000.4:0.7:64000.6:1.5:64001:2"));
+
+	@Test
+	void start_subscribesAndStoresPushedTickerAndBook() throws Exception {
+		try (var server = new ServerSocket(0)) {
+			var subscribe = new CompletableFuture<String>();
+			var serverThread = new Thread(() -> serve(server, subscribe), "okx-ws-stub");
+			serverThread.setDaemon(true);
+			serverThread.start();
+
+			var feed = new OkxLiveFeed(URI.create("ws://127.0.0.1:" + server.getLocalPort() + "/ws/v5/public"),
+					List.of("BTC-USDT"), Duration.ofSeconds(30));
+			try {
+				feed.start();
+				String message = subscribe.get(10, TimeUnit.SECONDS);
+				assertTrue(message.contains("\"op\":\"subscribe\""));
+				assertTrue(message.contains("{\"channel\":\"tickers\",\"instId\":\"BTC-USDT\"}"));
+				assertTrue(message.contains("{\"channel\":\"books\",\"instId\":\"BTC-USDT\"}"));
+
+				long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+				while ((feed.ticker("BTC-USDT") == null || feed.book("BTC-USDT", 5) == null) && System.nanoTime() < deadline) {
+					Thread.sleep(20);
+				}
+				assertTrue(feed.isConnected());
+
+				var ticker = feed.ticker("BTC-USDT");
+				assertNotNull(ticker);
+				assertEquals(64000.5, ticker.last());
+				assertEquals(0.0, ticker.change24hPercent());
+
+				var book = feed.book("BTC-USDT", 5);
+				assertNotNull(book);
+				assertEquals(2, book.asks().size());
+				assertEquals(64000.6, book.asks().get(0).price());
+				assertEquals(0.7, book.bids().get(0).size());
+			} finally {
+				feed.stop();
+			}
+		}
+	}
+
+	@Test
+	void keepAlive_abortsSocketThatDoesNotAnswerPingAndReconnects() throws Exception {
+		try (var server = new ServerSocket(0)) {
+			var first = new CompletableFuture<String>();
+			var second = new CompletableFuture<String>();
+			// The stub never answers "ping", like a half-open connection
+			var serverThread = new Thread(() -> {
+				serve(server, first);
+				serve(server, second);
+			}, "okx-ws-stub");
+			serverThread.setDaemon(true);
+			serverThread.start();
+
+			var feed = new OkxLiveFeed(URI.create("ws://127.0.0.1:" + server.getLocalPort() + "/ws/v5/public"),
+					List.of("BTC-USDT"), Duration.ofSeconds(30), Duration.ofMillis(200), Duration.ofMillis(300));
+			try {
+				feed.start();
+				first.get(10, TimeUnit.SECONDS);
+				long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+				while (!feed.isConnected() && System.nanoTime() < deadline) {
+					Thread.sleep(10);
+				}
+				assertTrue(feed.isConnected());
+
+				deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+				while (feed.isConnected() && System.nanoTime() < deadline) {
+					Thread.sleep(10);
+				}
+				assertFalse(feed.isConnected());
+
+				assertTrue(second.get(10, TimeUnit.SECONDS).contains("\"op\":\"subscribe\""));
+			} finally {
+				feed.stop();
+			}
+		}
+	}
+
+	@Test
+	void handle_dropsStaleValuesAndIgnoresOtherInstruments() throws Exception {
+		var feed = new OkxLiveFeed(URI.create("ws://127.0.0.1:1/unused"), List.of("ETH-USDT"), Duration.ofMillis(50));
+		feed.handle(TICKER_PUSH);
+		assertNull(feed.ticker("BTC-USDT"));
+
+		feed.handle(TICKER_PUSH.replace("BTC-USDT", "ETH-USDT"));
+		assertNotNull(feed.ticker("ETH-USDT"));
+		Thread.sleep(100);
+		assertNull(feed.ticker("ETH-USDT"));
+
+		feed.handle("pong");
+		feed.handle("{\"event\":\"error\",\"code\":\"60012\",\"msg\":\"Invalid request\"}");
+		feed.handle("not json");
+		assertNull(feed.book("ETH-USDT", 5));
+	}
+
+	/** Minimal RFC 6455 server: accepts one client, captures its first text frame and pushes two messages. */
+	private static void serve(ServerSocket server, CompletableFuture<String> subscribe) {
+		try (Socket socket = server.accept()) {
+			var in = new DataInputStream(socket.getInputStream());
+			var out = socket.getOutputStream();
+
+			String key = null;
+			for (String line = readLine(in); !line.isEmpty(); line = readLine(in)) {
+				if (line.toLowerCase().startsWith("sec-websocket-key:")) {
+					key = line.substring(line.indexOf(':') + 1).trim();
+				}
+			}
+			var sha1 = MessageDigest.getInstance("SHA-1")
+					.digest((key + "258EAFA5-E914-47DA-95CA-C5AB0DC85B11").getBytes(StandardCharsets.US_ASCII));
+			out.write(("HTTP/1.1 101 Switching Protocols\r\n"
+					+ "Upgrade: websocket\r\n"
+					+ "Connection: Upgrade\r\n"
+					+ "Sec-WebSocket-Accept: " + Base64.getEncoder().encodeToString(sha1) + "\r\n\r\n")
+					.getBytes(StandardCharsets.US_ASCII));
+			out.flush();
+
+			subscribe.complete(readTextFrame(in));
+			writeTextFrame(out, "{\"event\":\"subscribe\",\"arg\":{\"channel\":\"tickers\",\"instId\":\"BTC-USDT\"}}");
+			writeTextFrame(out, TICKER_PUSH.replace("\n", ""));
+			writeTextFrame(out, BOOK_PUSH.replace("\n", ""));
+
+			// Keep the connection open until the client goes away.
+			while (in.read() != -1) {
+				// drain
+			}
+		} catch (Exception e) {
+			subscribe.completeExceptionally(e);
+		}
+	}
+
+	private static String readLine(InputStream in) throws IOException {
+		var line = new ByteArrayOutputStream();
+		int b;
+		while ((b = in.read()) != -1 && b != '\n') {
+			if (b != '\r') line.write(b);
+		}
+		return line.toString(StandardCharsets.US_ASCII);
+	}
+
+	private static String readTextFrame(DataInputStream in) throws IOException {
+		in.readUnsignedByte();
+		int second = in.readUnsignedByte();
+		long length = second & 0x7F;
+		if (length == 126) length = in.readUnsignedShort();
+		else if (length == 127) length = in.readLong();
+		var mask = new byte[4];
+		if ((second & 0x80) != 0) in.readFully(mask);
+		var payload = new byte[(int) length];
+		in.readFully(payload);
+		for (int i = 0; i < payload.length; i++) {
+			payload[i] ^= mask[i % 4];
+		}
+		return new String(payload, StandardCharsets.UTF_8);
+	}
+
+	private static void writeTextFrame(OutputStream out, String text) throws IOException {
+		var payload = text.getBytes(StandardCharsets.UTF_8);
+		out.write(0x81);
+		if (payload.length < 126) {
+			out.write(payload.length);
+		} else {
+			out.write(126);
+			out.write(payload.length >>> 8);
+			out.write(payload.length & 0xFF);
+		}
+		out.write(payload);
+		out.flush();
+	}
+}
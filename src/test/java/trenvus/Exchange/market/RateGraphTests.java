@@ -0,0 +1,49 @@
+package trenvus.Exchange.market;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import trenvus.Exchange.market.MarketDataService.MarketTicker;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateGraphTests {
+	private static MarketTicker ticker(String instId, double last) {
+		var parts = instId.split("-");
+		return new MarketTicker(instId, parts[0], parts[1], last, null, null, null, null, null, null, null, "1");
+	}
+
+	@Test
+	void rate_triangulatesThroughMarketsAndPegs() {
+		var graph = new RateGraph(List.of(
+				ticker("BTC-USDT", 60000),
+				ticker("USDT-BRL", 5.0),
+				ticker("USD-EUR", 0.8)
+		));
+
+		var btcBrl = graph.rate("BTC", "BRL").orElseThrow();
+		assertEquals(300000.0, btcBrl.rate(), 1e-6);
+		assertEquals(List.of("BTC", "USDT", "BRL"), btcBrl.path());
+
+		var brlEur = graph.rate("BRL", "EUR").orElseThrow();
+		assertEquals(0.16, brlEur.rate(), 1e-12);
+		assertEquals(List.of("BRL", "USDT", "USD", "EUR"), brlEur.path());
+
+		assertEquals(5.0, graph.rate("TRV", "BRL").orElseThrow().rate(), 1e-12);
+		assertEquals(1 / 60000.0, graph.rate("USD", "BTC").orElseThrow().rate(), 1e-15);
+		assertTrue(graph.rate("BTC", "JPY").isEmpty());
+		assertSame(graph.rate("BTC", "BRL").orElseThrow(), btcBrl);
+	}
+
+	@Test
+	void rate_prefersMarketQuoteOverPeg() {
+		var graph = new RateGraph(List.of(
+				ticker("USDT-USD", 0.998),
+				ticker("USDT-BRL", 5.0)
+		));
+
+		var usdtUsd = graph.rate("USDT", "USD").orElseThrow();
+		assertEquals(0.998, usdtUsd.rate(), 1e-12);
+		assertEquals(List.of("USDT", "USD"), usdtUsd.path());
+		assertTrue(graph.currencies().containsAll(List.of("BRL", "TRV", "USD", "USDT")));
+	}
+}
@@ -0,0 +1,78 @@
+package trenvus.Exchange.market;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTests {
+	@Test
+	void load_concurrentCallersForSameKeyShareOneCall() throws Exception {
+		var loads = new SingleFlight<String, Integer>();
+		var calls = new AtomicInteger();
+		var release = new CountDownLatch(1);
+		var pool = Executors.newFixedThreadPool(4);
+		try {
+			var first = pool.submit(() -> loads.load("crypto", () -> {
+				calls.incrementAndGet();
+				await(release);
+				return 42;
+			}));
+			while (loads.inFlightCount() == 0) {
+				Thread.onSpinWait();
+			}
+			var second = pool.submit(() -> loads.load("crypto", () -> {
+				calls.incrementAndGet();
+				return -1;
+			}));
+			Thread.sleep(200);
+			assertFalse(second.isDone());
+
+			release.countDown();
+			assertEquals(42, first.get(5, TimeUnit.SECONDS));
+			assertEquals(42, second.get(5, TimeUnit.SECONDS));
+			assertEquals(1, calls.get());
+			assertEquals(0, loads.inFlightCount());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void load_differentKeysDoNotBlockEachOther() throws Exception {
+		var loads = new SingleFlight<String, String>();
+		var release = new CountDownLatch(1);
+		var pool = Executors.newFixedThreadPool(2);
+		try {
+			var slow = pool.submit(() -> loads.load("crypto", () -> {
+				await(release);
+				return "crypto";
+			}));
+			assertEquals("fiat", pool.submit(() -> loads.load("fiat", () -> "fiat")).get(5, TimeUnit.SECONDS));
+			release.countDown();
+			assertEquals("crypto", slow.get(5, TimeUnit.SECONDS));
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	void load_failureIsPropagatedAndKeyIsReleased() {
+		var loads = new SingleFlight<String, String>();
+		assertThrows(IllegalStateException.class, () -> loads.load("k", () -> {
+			throw new IllegalStateException("upstream down");
+		}));
+		assertEquals("ok", loads.load("k", () -> "ok"));
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}